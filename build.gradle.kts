@@ -3,6 +3,7 @@ import org.gradle.api.tasks.testing.Test
 plugins {
     id("java")
     id("com.gradleup.shadow") version "9.0.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "net.zithium"
@@ -25,11 +26,18 @@ repositories {
 dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.3")
         testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.3")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("org.mockito:mockito-core:5.12.0")
+    // SQL handler tests run against a throwaway MySQL server and are skipped without Docker.
+    testImplementation("org.testcontainers:junit-jupiter:1.20.1")
+    testImplementation("org.testcontainers:mysql:1.20.1")
+    testRuntimeOnly("com.mysql:mysql-connector-j:8.4.0")
     implementation("co.aikar:acf-paper:0.5.1-SNAPSHOT")
     implementation("dev.triumphteam:triumph-gui:3.1.11")
     implementation("org.bstats:bstats-bukkit:3.1.0")
     implementation("com.github.ItzSave:ZithiumLibrary:1f5182b77f")
     implementation("com.github.NahuLD.folia-scheduler-wrapper:folia-scheduler-wrapper:v0.0.3")
+    implementation("com.zaxxer:HikariCP:5.1.0") { exclude(group = "org.slf4j") }
 
     compileOnly("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
         testCompileOnly("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
@@ -43,20 +51,40 @@ dependencies {
     compileOnly("net.milkbowl.vault:VaultAPI:1.7")
     compileOnly("org.black_ixx:playerpoints:3.2.6")
     compileOnly(fileTree(mapOf("dir" to "libs", "include" to listOf("*.jar"))))
+
+    // Storage benchmarks, run with ./gradlew jmh. The server normally provides these.
+    jmh("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
+    jmh("org.xerial:sqlite-jdbc:3.46.0.0")
+    jmh("org.mockito:mockito-core:5.12.0")
 }
 
 java {
     toolchain.languageVersion.set(JavaLanguageVersion.of(17))
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    // Narrow a run with -PjmhIncludes=StorageFlushBenchmark
+    if (project.hasProperty("jmhIncludes")) {
+        includes.set(listOf(project.property("jmhIncludes").toString()))
+    }
+}
+
 tasks.compileJava {
     options.encoding = "UTF-8"
 }
 
 tasks {
-    // Disable all test tasks and test compilation to avoid OneDrive file locks and speed up builds
-    named("compileTestJava") { enabled = false }
-    withType<Test>().configureEach { enabled = false }
+    // Build with -PskipTests to disable all test tasks and test compilation, to avoid OneDrive file locks and speed up builds
+    if (project.hasProperty("skipTests")) {
+        named("compileTestJava") { enabled = false }
+        withType<Test>().configureEach { enabled = false }
+    }
+
+    compileTestJava {
+        options.encoding = "UTF-8"
+    }
 
     test {
         useJUnitPlatform()
@@ -76,6 +104,7 @@ tasks {
     shadowJar {
         minimize {
             exclude(dependency("com.github.NahuLD.folia-scheduler-wrapper:folia-scheduler-wrapper:.*"))
+            exclude(dependency("com.zaxxer:HikariCP:.*"))
         }
 
         dependencies {
@@ -87,5 +116,6 @@ tasks {
         relocate("dev.triumphteam.gui", "net.zithium.deluxecoinflip.libs.gui")
         relocate("net.zithium.library", "net.zithium.deluxecoinflip.libs.library")
         relocate("org.bstats", "net.zithium.deluxecoinflip.libs.metrics") // bStats
+        relocate("com.zaxxer.hikari", "net.zithium.deluxecoinflip.libs.hikari")
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import me.nahu.scheduler.wrapper.WrappedScheduler;
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A stand-in plugin for running storage handlers outside a server. It only
+ * provides what the handlers use: a data folder, the storage config and a logger.
+ * Scheduled tasks are dropped.
+ */
+final class BenchmarkPlugin {
+
+    private BenchmarkPlugin() {
+    }
+
+    static DeluxeCoinflipPlugin create(File dataFolder) throws ReflectiveOperationException {
+        final YamlConfiguration config = new YamlConfiguration();
+        config.set("storage.sqlite.reader-connections", 2);
+        config.set("storage.sqlite.journal-mode", "WAL");
+        config.set("storage.sqlite.synchronous", "NORMAL");
+        config.set("storage.sqlite.cache-size-kb", 8192);
+        config.set("storage.sqlite.statement-cache-size", 32);
+        config.set("storage.sqlite.busy-timeout", 5000);
+        // Compaction is timed separately from the lookups and saves measured here.
+        config.set("storage.recordlog.compact-check-interval", 0);
+
+        final DeluxeCoinflipPlugin plugin = mock(DeluxeCoinflipPlugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("DeluxeCoinflip"));
+        when(plugin.getScheduler()).thenReturn(mock(WrappedScheduler.class));
+
+        // CoinflipGame looks the plugin up statically to schedule its head lookup.
+        final Field instance = DeluxeCoinflipPlugin.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, plugin);
+        return plugin;
+    }
+
+    static void delete(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
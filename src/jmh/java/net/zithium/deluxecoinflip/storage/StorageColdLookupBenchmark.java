@@ -0,0 +1,92 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first lookup after storage is opened, before any connection,
+ * statement or page cache has been filled. Each iteration reopens the storage
+ * and times a single lookup. The operating system's file cache is not cleared,
+ * so this is the cost of a cold plugin, not of a cold disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 50)
+@Fork(1)
+public class StorageColdLookupBenchmark {
+
+    @Param({"SQLITE", "RECORDLOG"})
+    public String storageType;
+
+    private Path folder;
+    private DeluxeCoinflipPlugin plugin;
+    private StorageHandler handler;
+    private List<UUID> players;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        folder = Files.createTempDirectory("deluxecoinflip-jmh");
+        plugin = BenchmarkPlugin.create(folder.toFile());
+
+        players = new ArrayList<>(StorageHandlerBenchmark.ROWS);
+        final List<PlayerData> seed = new ArrayList<>(StorageHandlerBenchmark.ROWS);
+        for (int i = 0; i < StorageHandlerBenchmark.ROWS; i++) {
+            final UUID uuid = UUID.randomUUID();
+            players.add(uuid);
+            seed.add(new PlayerData(uuid, i % 50, i % 40, i * 10L, i * 5L, i * 20L, true));
+        }
+
+        final StorageHandler seeder = StorageHandlerBenchmark.open(plugin, storageType);
+        seeder.savePlayers(seed);
+        seeder.onDisable();
+    }
+
+    @Setup(Level.Iteration)
+    public void open() {
+        handler = StorageHandlerBenchmark.open(plugin, storageType);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        handler.onDisable();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        BenchmarkPlugin.delete(folder);
+    }
+
+    @Benchmark
+    public PlayerData getPlayerCold() {
+        return handler.getPlayer(players.get(ThreadLocalRandom.current().nextInt(players.size())));
+    }
+}
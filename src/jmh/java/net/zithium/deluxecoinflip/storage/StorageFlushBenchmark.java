@@ -0,0 +1,92 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a batched flush of many players, as done by the write-behind queue,
+ * autosave and shutdown. Full-row saves and stat deltas are measured separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageFlushBenchmark {
+
+    @Param({"SQLITE", "RECORDLOG"})
+    public String storageType;
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private Path folder;
+    private StorageHandler handler;
+    private List<PlayerData> batch;
+    private List<PlayerDelta> deltas;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        folder = Files.createTempDirectory("deluxecoinflip-jmh");
+        handler = StorageHandlerBenchmark.open(BenchmarkPlugin.create(folder.toFile()), storageType);
+
+        batch = new ArrayList<>(batchSize);
+        deltas = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final UUID uuid = UUID.randomUUID();
+            batch.add(new PlayerData(uuid, i, i, i * 10L, i * 5L, i * 20L, true));
+            deltas.add(new PlayerDelta(uuid, PlayerDelta.WINS | PlayerDelta.PROFIT | PlayerDelta.TOTAL_GAMBLED,
+                    1, 0, 100L, 0L, 100L, true, System.currentTimeMillis()));
+        }
+
+        handler.savePlayers(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        handler.onDisable();
+        BenchmarkPlugin.delete(folder);
+    }
+
+    /**
+     * Whole rows for every player, as written by {@code savePlayers}.
+     */
+    @Benchmark
+    public boolean savePlayers() {
+        return handler.savePlayers(batch);
+    }
+
+    /**
+     * Only changed counters for every player, as written by the write-behind queue.
+     */
+    @Benchmark
+    public boolean savePlayerDeltas() {
+        return handler.savePlayerDeltas(deltas);
+    }
+}
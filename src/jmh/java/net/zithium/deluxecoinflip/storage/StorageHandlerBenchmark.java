@@ -0,0 +1,127 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the persistence path of each storage backend against a throwaway
+ * database seeded with {@value #ROWS} players and {@value #ROWS} listings.
+ *
+ * <p>Run with {@code ./gradlew jmh}; results are written to {@code build/results/jmh}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageHandlerBenchmark {
+
+    static final int ROWS = 10_000;
+
+    @Param({"SQLITE", "RECORDLOG"})
+    public String storageType;
+
+    private Path folder;
+    private DeluxeCoinflipPlugin plugin;
+    private StorageHandler handler;
+    private List<UUID> players;
+    private UUID hotPlayer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        folder = Files.createTempDirectory("deluxecoinflip-jmh");
+        plugin = BenchmarkPlugin.create(folder.toFile());
+        handler = open(plugin, storageType);
+
+        players = new ArrayList<>(ROWS);
+        final List<PlayerData> seed = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            final UUID uuid = UUID.randomUUID();
+            players.add(uuid);
+            seed.add(new PlayerData(uuid, i % 50, i % 40, i * 10L, i * 5L, i * 20L, true));
+            handler.saveCoinflip(new CoinflipGame(uuid, "VAULT", 1000L + i));
+        }
+
+        handler.savePlayers(seed);
+        hotPlayer = players.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        handler.onDisable();
+        BenchmarkPlugin.delete(folder);
+    }
+
+    /**
+     * One player saved on their own, as {@code StorageHandler#savePlayer} does outside of batches.
+     */
+    @Benchmark
+    public void savePlayer() {
+        final UUID uuid = players.get(ThreadLocalRandom.current().nextInt(ROWS));
+        handler.savePlayer(new PlayerData(uuid, 1, 2, 3L, 4L, 5L, true));
+    }
+
+    /**
+     * The same player looked up over and over, so pages, statements and mappings stay hot.
+     */
+    @Benchmark
+    public PlayerData getPlayerWarm() {
+        return handler.getPlayer(hotPlayer);
+    }
+
+    /**
+     * Any of the stored players, looked up at random.
+     */
+    @Benchmark
+    public PlayerData getPlayerRandom() {
+        return handler.getPlayer(players.get(ThreadLocalRandom.current().nextInt(ROWS)));
+    }
+
+    /**
+     * Every stored listing, as loaded when listings are restored on startup.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<UUID, CoinflipGame> getGames() {
+        return handler.getGames();
+    }
+
+    static StorageHandler open(DeluxeCoinflipPlugin plugin, String type) {
+        final StorageHandler handler = StorageManager.createHandler(type);
+        if (!handler.onEnable(plugin)) {
+            throw new IllegalStateException("Could not open " + type + " storage for benchmarking");
+        }
+
+        return handler;
+    }
+}
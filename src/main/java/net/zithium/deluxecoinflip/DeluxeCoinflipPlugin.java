@@ -29,7 +29,9 @@ import net.zithium.deluxecoinflip.listener.game.ActiveGameQuitListener;
 import net.zithium.deluxecoinflip.listener.game.GameQuitListener;
 import net.zithium.deluxecoinflip.menu.DupeProtection;
 import net.zithium.deluxecoinflip.menu.InventoryManager;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
 import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
 import net.zithium.deluxecoinflip.storage.StorageManager;
 import net.zithium.deluxecoinflip.storage.handler.GameShutdownProvider;
 import net.zithium.deluxecoinflip.storage.handler.impl.DefaultGameShutdownProvider;
@@ -45,6 +47,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -143,6 +146,17 @@ public class DeluxeCoinflipPlugin extends FoliaWrappedJavaPlugin implements Delu
 
         shutdownProvider = new DefaultGameShutdownProvider(this);
 
+        if (gameManager.isRestoringListings()) {
+            getLogger().info("Restored " + gameManager.restoreListings() + " coinflip listing(s) from storage.");
+        }
+
+        // Refund or complete wagers left in the escrow journal by a crash.
+        if (storageManager.getEscrowJournal() != null) {
+            storageManager.getEscrowJournal().recover();
+        }
+
+        gameManager.startExpiry();
+
         final List<String> aliases = getConfigHandler(ConfigType.CONFIG).getConfig().getStringList("settings.command_aliases");
 
         final PaperCommandManager paperCommandManager = new PaperCommandManager(this);
@@ -188,6 +202,10 @@ public class DeluxeCoinflipPlugin extends FoliaWrappedJavaPlugin implements Delu
 
     @Override
     public void onDisable() {
+        if (gameManager != null) {
+            gameManager.stopExpiry();
+        }
+
         if (storageManager != null) {
             shutdownProvider.shutdownAll();
             storageManager.onDisable(true);
@@ -263,4 +281,14 @@ public class DeluxeCoinflipPlugin extends FoliaWrappedJavaPlugin implements Delu
     public Optional<PlayerData> getPlayerData(Player player) {
         return storageManager.getPlayer(player.getUniqueId());
     }
+
+    @Override
+    public CompletableFuture<PlayerData> loadPlayerData(UUID uuid) {
+        return storageManager.fetchPlayerData(uuid);
+    }
+
+    @Override
+    public CompletableFuture<PeriodStats> loadPeriodStats(UUID uuid, StatPeriod period) {
+        return storageManager.fetchPeriodStats(uuid, period);
+    }
 }
@@ -6,10 +6,14 @@
 package net.zithium.deluxecoinflip.api;
 
 import net.zithium.deluxecoinflip.economy.provider.EconomyProvider;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
 import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
 import org.bukkit.entity.Player;
 
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface DeluxeCoinflipAPI {
 
@@ -29,4 +33,23 @@ public interface DeluxeCoinflipAPI {
      * @return Optional of player data, represents if they are loaded in cache
      */
     Optional<PlayerData> getPlayerData(Player player);
+
+    /**
+     * Load player data, including players who are offline.
+     * Never blocks the calling thread.
+     *
+     * @param uuid The UUID of the player
+     * @return Future completed with the player data off the main thread, or straight away if they are in cache
+     */
+    CompletableFuture<PlayerData> loadPlayerData(UUID uuid);
+
+    /**
+     * Load a player's stats for the current day, week or month, including players who are offline.
+     * Never blocks the calling thread.
+     *
+     * @param uuid   The UUID of the player
+     * @param period The period to get stats for
+     * @return Future completed with the player's stats for the current period
+     */
+    CompletableFuture<PeriodStats> loadPeriodStats(UUID uuid, StatPeriod period);
 }
@@ -13,52 +13,49 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+/**
+ * The flips in progress, keyed by game id and indexed by each participant.
+ * A player with several listings can be in more than one flip at once.
+ */
 public final class ActiveGamesCache {
 
     private final ConcurrentMap<UUID, CoinflipGame> activeGames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Set<CoinflipGame>> byPlayer = new ConcurrentHashMap<>();
 
-    public CoinflipGame getGame(@NotNull UUID playerUUID) {
-        return this.activeGames.get(playerUUID);
+    public Set<CoinflipGame> getGames(@NotNull UUID playerUUID) {
+        final Set<CoinflipGame> games = this.byPlayer.get(playerUUID);
+        return games != null ? Set.copyOf(games) : Set.of();
     }
 
     public boolean isInGame(@NotNull UUID playerUUID) {
-        return this.activeGames.containsKey(playerUUID);
+        return this.byPlayer.containsKey(playerUUID);
     }
 
     public void register(@NotNull CoinflipGame game) {
-        final UUID playerId = game.getPlayerUUID();
-        final UUID opponentId = game.getOpponentUUID();
-
-        if (playerId != null) {
-            this.activeGames.put(playerId, game);
-        }
-
-        if (opponentId != null) {
-            this.activeGames.put(opponentId, game);
+        this.activeGames.put(game.getGameId(), game);
+
+        for (UUID participant : getParticipants(game)) {
+            this.byPlayer.compute(participant, (ignored, games) -> {
+                final Set<CoinflipGame> set = games != null ? games : ConcurrentHashMap.newKeySet();
+                set.add(game);
+                return set;
+            });
         }
     }
 
     public void unregister(@NotNull CoinflipGame game) {
-        final UUID playerId = game.getPlayerUUID();
-        final UUID opponentId = game.getOpponentUUID();
-
-        boolean removedAny = false;
-
-        if (playerId != null) {
-            removedAny |= this.activeGames.remove(playerId, game);
-        }
-
-        if (opponentId != null) {
-            removedAny |= this.activeGames.remove(opponentId, game);
-        }
+        this.activeGames.remove(game.getGameId(), game);
 
-        if (!removedAny && (playerId == null || opponentId == null)) {
-            this.activeGames.entrySet().removeIf(entry -> entry.getValue() == game);
+        for (UUID participant : getParticipants(game)) {
+            this.byPlayer.computeIfPresent(participant, (ignored, games) -> {
+                games.remove(game);
+                return games.isEmpty() ? null : games;
+            });
         }
     }
 
@@ -78,10 +75,7 @@ public final class ActiveGamesCache {
             return Collections.singletonList(opponentUUID);
         }
 
-        return this.activeGames.entrySet().stream()
-                .filter(entry -> entry.getValue() == game)
-                .map(Map.Entry::getKey)
-                .toList();
+        return List.of();
     }
 
     public Collection<CoinflipGame> getAllUniqueGames() {
@@ -90,5 +84,6 @@ public final class ActiveGamesCache {
 
     public void clear() {
         this.activeGames.clear();
+        this.byPlayer.clear();
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps the data of recently seen offline players, bounded by size and by time since last access.
+ *
+ * <p>Lookups read through to storage on a miss. The cache holds the pending load
+ * rather than its result, so any number of lookups for the same player made while
+ * it is loading share one query. Failed loads are dropped so the next lookup retries.</p>
+ */
+public final class OfflinePlayerCache {
+
+    private final Cache<UUID, CompletableFuture<PlayerData>> cache;
+    private final Function<UUID, CompletableFuture<PlayerData>> loader;
+
+    public OfflinePlayerCache(long maximumSize, long expireAfterAccessSeconds,
+                              @NotNull Function<UUID, CompletableFuture<PlayerData>> loader) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(0L, maximumSize))
+                .expireAfterAccess(Math.max(1L, expireAfterAccessSeconds), TimeUnit.SECONDS)
+                .build();
+        this.loader = loader;
+    }
+
+    public static OfflinePlayerCache fromConfig(@Nullable ConfigurationSection section,
+                                                @NotNull Function<UUID, CompletableFuture<PlayerData>> loader) {
+        if (section == null) {
+            return new OfflinePlayerCache(1000L, 600L, loader);
+        }
+
+        return new OfflinePlayerCache(section.getLong("maximum-size", 1000L), section.getLong("expire-after-access", 600L), loader);
+    }
+
+    /**
+     * Gets a player's data, loading it from storage if it is not cached.
+     *
+     * @param uuid the player's UUID
+     * @return a future completed with the player's data
+     */
+    public CompletableFuture<PlayerData> get(@NotNull UUID uuid) {
+        final CompletableFuture<PlayerData> future;
+        try {
+            future = cache.get(uuid, () -> loader.apply(uuid));
+        } catch (ExecutionException ex) {
+            return CompletableFuture.failedFuture(ex.getCause());
+        }
+
+        future.whenComplete((data, error) -> {
+            if (error != null) {
+                cache.asMap().remove(uuid, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Gets a player's data only if it has finished loading. A miss starts a load
+     * in the background, so a later call can be answered from memory.
+     *
+     * @param uuid the player's UUID
+     * @return the cached data, or {@code null} if it is not loaded yet
+     */
+    public @Nullable PlayerData getIfLoaded(@NotNull UUID uuid) {
+        final CompletableFuture<PlayerData> future = get(uuid);
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    /**
+     * Caches data that is already known, such as a player who just quit.
+     *
+     * @param data the player's data
+     */
+    public void put(@NotNull PlayerData data) {
+        cache.put(data.getUUID(), CompletableFuture.completedFuture(data));
+    }
+
+    /**
+     * Drops a player's cached data and any load in progress, so the next lookup reads storage again.
+     *
+     * @param uuid the player's UUID
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        cache.invalidate(uuid);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
+import net.zithium.deluxecoinflip.storage.RollupSettings;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keeps players' stats for the current day, week and month, so placeholders can
+ * read them without touching the database.
+ *
+ * <p>Entries are loaded on first lookup and reloaded whenever new stat changes for
+ * the player are written, keeping the old values until the reload finishes. When
+ * reloads overlap, the one started last is kept even if an older one finishes
+ * after it. An entry loaded in an earlier period reads as empty once that period
+ * has ended.</p>
+ */
+public final class PeriodStatsCache {
+
+    private final Cache<UUID, Loaded> cache;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Function<UUID, CompletableFuture<Map<StatPeriod, PeriodStats>>> loader;
+    private final RollupSettings settings;
+
+    public PeriodStatsCache(long maximumSize, long expireAfterAccessSeconds, @NotNull RollupSettings settings,
+                            @NotNull Function<UUID, CompletableFuture<Map<StatPeriod, PeriodStats>>> loader) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(0L, maximumSize))
+                .expireAfterAccess(Math.max(1L, expireAfterAccessSeconds), TimeUnit.SECONDS)
+                .build();
+        this.settings = settings;
+        this.loader = loader;
+    }
+
+    /**
+     * Gets a player's stats for the current period, loading them from storage if they are not cached.
+     *
+     * @param uuid   the player's UUID
+     * @param period the kind of period
+     * @return a future completed with the player's stats
+     */
+    public CompletableFuture<PeriodStats> get(@NotNull UUID uuid, @NotNull StatPeriod period) {
+        return load(uuid).thenApply(stats -> current(stats, period));
+    }
+
+    /**
+     * Gets a player's stats for the current period only if they have finished
+     * loading. A miss starts a load in the background.
+     *
+     * @param uuid   the player's UUID
+     * @param period the kind of period
+     * @return the cached stats, or {@code null} if they are not loaded yet
+     */
+    public @Nullable PeriodStats getIfLoaded(@NotNull UUID uuid, @NotNull StatPeriod period) {
+        final CompletableFuture<Map<StatPeriod, PeriodStats>> future = load(uuid);
+        return future.isDone() && !future.isCompletedExceptionally() ? current(future.join(), period) : null;
+    }
+
+    /**
+     * Starts loading a player's stats if they are not cached yet.
+     *
+     * @param uuid the player's UUID
+     */
+    public void preload(@NotNull UUID uuid) {
+        load(uuid);
+    }
+
+    /**
+     * Reloads a cached player's stats after changes to them were written. Lookups
+     * keep getting the old stats until the reload finishes. Does nothing if the
+     * player is not cached.
+     *
+     * @param uuid the player's UUID
+     */
+    public void refresh(@NotNull UUID uuid) {
+        if (cache.getIfPresent(uuid) == null) {
+            return;
+        }
+
+        // Reloads can finish out of order; the one started last wins, whenever it finishes.
+        final long started = sequence.incrementAndGet();
+        loader.apply(uuid).thenAccept(stats -> cache.asMap().computeIfPresent(uuid,
+                (key, installed) -> installed.sequence() > started ? installed : new Loaded(CompletableFuture.completedFuture(stats), started)));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private CompletableFuture<Map<StatPeriod, PeriodStats>> load(UUID uuid) {
+        final Loaded loaded;
+        try {
+            loaded = cache.get(uuid, () -> new Loaded(loader.apply(uuid), sequence.incrementAndGet()));
+        } catch (ExecutionException ex) {
+            return CompletableFuture.failedFuture(ex.getCause());
+        }
+
+        loaded.future().whenComplete((stats, error) -> {
+            if (error != null) {
+                cache.asMap().remove(uuid, loaded);
+            }
+        });
+        return loaded.future();
+    }
+
+    private PeriodStats current(Map<StatPeriod, PeriodStats> stats, StatPeriod period) {
+        final long start = settings.periodStart(period, System.currentTimeMillis());
+        final PeriodStats cached = stats.get(period);
+        return cached != null && cached.periodStart() == start ? cached : PeriodStats.empty(period, start);
+    }
+
+    /**
+     * A cached load, with the sequence number it was started at.
+     */
+    private record Loaded(CompletableFuture<Map<StatPeriod, PeriodStats>> future, long sequence) {
+    }
+}
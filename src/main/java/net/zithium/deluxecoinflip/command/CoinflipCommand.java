@@ -19,19 +19,29 @@ import net.zithium.deluxecoinflip.cache.ActiveGamesCache;
 import net.zithium.deluxecoinflip.config.ConfigType;
 import net.zithium.deluxecoinflip.config.Messages;
 import net.zithium.deluxecoinflip.economy.EconomyManager;
+import net.zithium.deluxecoinflip.exception.InvalidStorageHandlerException;
 import net.zithium.deluxecoinflip.economy.provider.EconomyProvider;
 import net.zithium.deluxecoinflip.game.CoinflipGame;
 import net.zithium.deluxecoinflip.game.GameManager;
+import net.zithium.deluxecoinflip.storage.BackupService;
+import net.zithium.deluxecoinflip.storage.GameHistoryEntry;
 import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.StorageExecutor;
+import net.zithium.deluxecoinflip.storage.StorageManager;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
 import net.zithium.deluxecoinflip.utility.TextUtil;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @CommandAlias("coinflip|cf")
@@ -132,18 +142,189 @@ public class CoinflipCommand extends BaseCommand {
             return;
         }
 
-        UUID uuid = player.getUniqueId();
-        if (gameManager.getCoinflipGames().containsKey(uuid)) {
-            final CoinflipGame game = gameManager.getCoinflipGames().get(uuid);
+        // Cancelling fails for a listing someone joins at the same moment; they keep that game.
+        final List<CoinflipGame> games = gameManager.tryCancelAll(player.getUniqueId());
+        if (games.isEmpty()) {
+            Messages.GAME_NOT_FOUND.send(player);
+            return;
+        }
 
+        for (CoinflipGame game : games) {
             economyManager.getEconomyProvider(game.getProvider()).deposit(player, game.getAmount());
-            gameManager.removeCoinflipGame(uuid);
-            Messages.DELETED_GAME.send(player);
-        } else {
-            Messages.GAME_NOT_FOUND.send(player);
+            plugin.getStorageManager().getEscrowJournal().clear(game.getGameId());
+            gameManager.removeCoinflipGame(game.getGameId());
+        }
+        Messages.DELETED_GAME.send(player);
+    }
+
+    @Subcommand("history")
+    @CommandCompletion("@players")
+    public void historySubCommand(final CommandSender sender, @Optional String targetName, @Optional Integer page) {
+        // "/coinflip history 2" asks for a page of your own history.
+        if (targetName != null && page == null && targetName.chars().allMatch(Character::isDigit)) {
+            page = Integer.parseInt(targetName);
+            targetName = null;
+        }
+
+        if (targetName == null && !(sender instanceof Player)) {
+            sender.sendMessage("Console must specify a player, use /coinflip history <player> [page]");
+            return;
+        }
+
+        if (targetName != null && !targetName.equalsIgnoreCase(sender.getName()) && !sender.hasPermission("coinflip.history.others")) {
+            Messages.NO_PERMISSION.send(sender);
+            return;
+        }
+
+        final String name = targetName;
+        final int requestedPage = page == null ? 1 : Math.max(1, page);
+        plugin.getStorageManager().getExecutor().read(null, () -> {
+            sendHistory(sender, name, requestedPage);
+            return null;
+        });
+    }
+
+    private void sendHistory(final CommandSender sender, final String targetName, final int page) {
+        final OfflinePlayer target = targetName == null ? (Player) sender : Bukkit.getOfflinePlayerIfCached(targetName);
+        if (target == null) {
+            Messages.HISTORY_PLAYER_NOT_FOUND.send(sender, "{PLAYER}", targetName);
+            return;
+        }
+
+        final String targetDisplayName = target.getName() != null ? target.getName() : targetName;
+        final FileConfiguration config = plugin.getConfigHandler(ConfigType.CONFIG).getConfig();
+        final int pageSize = Math.max(1, config.getInt("settings.history.page-size", 10));
+
+        // Walk forward one index-bounded page at a time; only the requested page is kept.
+        List<GameHistoryEntry> entries = List.of();
+        long cursor = Long.MAX_VALUE;
+        for (int i = 0; i < page; i++) {
+            entries = plugin.getStorageManager().getStorageHandler().getGameHistory(target.getUniqueId(), cursor, pageSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+
+            cursor = entries.get(entries.size() - 1).id();
+        }
+
+        if (entries.isEmpty()) {
+            Messages.HISTORY_EMPTY.send(sender, "{PLAYER}", targetDisplayName, "{PAGE}", page);
+            return;
+        }
+
+        final DateTimeFormatter dateFormat = getHistoryDateFormat(config);
+        Messages.HISTORY_HEADER.send(sender, "{PLAYER}", targetDisplayName, "{PAGE}", page);
+        for (GameHistoryEntry entry : entries) {
+            final boolean won = entry.winner().equals(target.getUniqueId());
+            final String opponentName = Bukkit.getOfflinePlayer(won ? entry.loser() : entry.winner()).getName();
+            final EconomyProvider provider = economyManager.getEconomyProvider(entry.provider());
+
+            (won ? Messages.HISTORY_ENTRY_WIN : Messages.HISTORY_ENTRY_LOSS).send(sender,
+                "{OPPONENT}", opponentName != null ? opponentName : "Unknown",
+                "{AMOUNT}", TextUtil.numberFormat(entry.amount()),
+                "{CURRENCY}", provider != null ? provider.getDisplayName() : entry.provider(),
+                "{TAX}", TextUtil.numberFormat(entry.tax()),
+                "{DATE}", dateFormat.format(Instant.ofEpochMilli(entry.timestamp())));
+        }
+
+        if (entries.size() == pageSize) {
+            Messages.HISTORY_FOOTER.send(sender, "{PLAYER}", targetDisplayName, "{NEXT_PAGE}", page + 1);
         }
     }
 
+    private DateTimeFormatter getHistoryDateFormat(FileConfiguration config) {
+        try {
+            return DateTimeFormatter.ofPattern(config.getString("settings.history.date-format", "yyyy-MM-dd HH:mm"))
+                .withZone(ZoneId.systemDefault());
+        } catch (IllegalArgumentException ex) {
+            return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+        }
+    }
+
+    @Subcommand("admin storage")
+    @CommandPermission("coinflip.admin")
+    public void storageStatsSubCommand(final CommandSender sender) {
+        final StorageExecutor.Stats stats = plugin.getStorageManager().getExecutor().getStats();
+        final StorageManager storageManager = plugin.getStorageManager();
+
+        Messages.ADMIN_STORAGE_STATS.send(sender,
+            "{DEPTH}", stats.depth(),
+            "{CAPACITY}", stats.capacity(),
+            "{PEAK}", stats.maxDepth(),
+            "{POLICY}", stats.policy(),
+            "{COMPLETED}", stats.completed(),
+            "{FAILED}", stats.failed(),
+            "{REJECTED}", stats.rejected(),
+            "{CALLER_RUNS}", stats.callerRuns(),
+            "{OVERFLOWED}", stats.overflowed(),
+            "{SUBMITTED}", stats.submitted(),
+            "{AVERAGE_LATENCY}", String.format(Locale.US, "%.2f", stats.averageLatencyMillis()),
+            "{MAX_LATENCY}", String.format(Locale.US, "%.2f", stats.maxLatencyMillis()),
+            "{READERS}", stats.virtualReaders() ? "virtual" : "platform",
+            "{PENDING_PLAYERS}", storageManager.getWriteQueue().getPendingCount(),
+            "{PENDING_HISTORY}", storageManager.getHistoryRecorder().getPendingCount());
+    }
+
+    @Subcommand("admin backup")
+    @CommandPermission("coinflip.admin")
+    public void backupSubCommand(final CommandSender sender) {
+        final BackupService backupService = plugin.getStorageManager().getBackupService();
+        if (backupService == null) {
+            Messages.ADMIN_BACKUP_UNSUPPORTED.send(sender);
+            return;
+        }
+
+        Messages.ADMIN_BACKUP_STARTED.send(sender);
+        backupService.backup().whenComplete((result, error) -> {
+            if (error != null) {
+                final Throwable cause = error.getCause() != null ? error.getCause() : error;
+                Messages.ADMIN_BACKUP_FAILED.send(sender, "{ERROR}", cause.getMessage());
+                return;
+            }
+
+            Messages.ADMIN_BACKUP_COMPLETED.send(sender,
+                "{FILE}", result.file().getName(),
+                "{SIZE}", result.formattedSize(),
+                "{DURATION}", result.durationMillis(),
+                "{REMOVED}", result.removed());
+        });
+    }
+
+    @Subcommand("admin migrate")
+    @CommandPermission("coinflip.admin")
+    @CommandCompletion("SQLITE|MYSQL|RECORDLOG SQLITE|MYSQL|RECORDLOG")
+    public void migrateSubCommand(final CommandSender sender, String from, String to) {
+        final StorageManager storageManager = plugin.getStorageManager();
+        final StorageHandler source;
+        final StorageHandler target;
+        try {
+            source = StorageManager.createHandler(from);
+            target = StorageManager.createHandler(to);
+        } catch (InvalidStorageHandlerException ex) {
+            Messages.ADMIN_MIGRATE_UNKNOWN_TYPE.send(sender);
+            return;
+        }
+
+        if (source.getClass() == target.getClass()) {
+            Messages.ADMIN_MIGRATE_SAME_TYPE.send(sender);
+            return;
+        }
+
+        if (storageManager.isActiveType(to)) {
+            Messages.ADMIN_MIGRATE_ACTIVE_TARGET.send(sender);
+            return;
+        }
+
+        if (!storageManager.getDataMigrator().start(from, to, sender)) {
+            Messages.ADMIN_MIGRATE_ALREADY_RUNNING.send(sender);
+            return;
+        }
+
+        Messages.ADMIN_MIGRATE_STARTED.send(sender,
+            "{FROM}", from.toUpperCase(Locale.ROOT),
+            "{TO}", to.toUpperCase(Locale.ROOT));
+    }
+
     @Subcommand("create|new")
     @CommandCompletion("* @providers")
     public void createSubCommand(final Player player, String amountInput, @Optional String currencyProvider) {
@@ -155,7 +336,7 @@ public class CoinflipCommand extends BaseCommand {
 
         final long amount = parsed;
 
-        if (gameManager.getCoinflipGames().containsKey(player.getUniqueId()) || activeGamesCache.isInGame(player.getUniqueId())) {
+        if (!gameManager.canCreateListing(player.getUniqueId()) || activeGamesCache.isInGame(player.getUniqueId())) {
             Messages.GAME_ACTIVE.send(player);
             return;
         }
@@ -211,28 +392,35 @@ public class CoinflipCommand extends BaseCommand {
                 return;
             }
 
-            provider.withdraw(player, (double) amount);
-            gameManager.addCoinflipGame(player.getUniqueId(), coinflipGame);
-
-            if (config.getBoolean("settings.broadcast-coinflip-creation")) {
-                Bukkit.getOnlinePlayers().forEach(onlinePlayer -> {
-                    java.util.Optional<PlayerData> playerDataOptional = plugin.getStorageManager().getPlayer(onlinePlayer.getUniqueId());
-
-                    if (playerDataOptional.isPresent()) {
-                        PlayerData playerData = playerDataOptional.get();
-                        if (playerData.isDisplayBroadcastMessages()) {
-                            Messages.COINFLIP_CREATED_BROADCAST.send(onlinePlayer,
-                                "{PLAYER}", player.getName(),
-                                "{CURRENCY}", provider.getDisplayName(),
-                                "{AMOUNT}", TextUtil.numberFormat(amount));
-                        }
+            plugin.getStorageManager().getEscrowJournal()
+                .withdrawStake(coinflipGame, provider, player, () -> gameManager.canCreateListing(player.getUniqueId()))
+                .thenAccept(withdrawn -> {
+                    if (!withdrawn) {
+                        Messages.CREATE_FAILED.send(player);
+                        return;
+                    }
+                    gameManager.addCoinflipGame(coinflipGame);
+
+                    if (config.getBoolean("settings.broadcast-coinflip-creation")) {
+                        Bukkit.getOnlinePlayers().forEach(onlinePlayer -> {
+                            java.util.Optional<PlayerData> playerDataOptional = plugin.getStorageManager().getPlayer(onlinePlayer.getUniqueId());
+
+                            if (playerDataOptional.isPresent()) {
+                                PlayerData playerData = playerDataOptional.get();
+                                if (playerData.isDisplayBroadcastMessages()) {
+                                    Messages.COINFLIP_CREATED_BROADCAST.send(onlinePlayer,
+                                        "{PLAYER}", player.getName(),
+                                        "{CURRENCY}", provider.getDisplayName(),
+                                        "{AMOUNT}", TextUtil.numberFormat(amount));
+                                }
+                            }
+                        });
                     }
-                });
-            }
 
-            Messages.CREATED_GAME.send(player,
-                "{CURRENCY}", provider.getDisplayName(),
-                "{AMOUNT}", TextUtil.numberFormat(amount));
+                    Messages.CREATED_GAME.send(player,
+                        "{CURRENCY}", provider.getDisplayName(),
+                        "{AMOUNT}", TextUtil.numberFormat(amount));
+                });
         } else {
             Messages.INSUFFICIENT_FUNDS.send(player);
         }
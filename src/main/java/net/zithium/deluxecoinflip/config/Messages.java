@@ -39,10 +39,36 @@ public enum Messages {
     CHAT_CANCELLED("coinflip.chat-cancelled"),
     INVALID_CURRENCY("coinflip.invalid-currency"),
     INVALID_AMOUNT("coinflip.invalid-amount"),
+    CREATE_FAILED("coinflip.create-failed"),
 
     GAME_REFUNDED("coinflip.refunded"),
+    LISTING_EXPIRED("coinflip.listing-expired"),
     GAME_SUMMARY_LOSS("coinflip.summary-loss"),
-    GAME_SUMMARY_WIN("coinflip.summary-win");
+    GAME_SUMMARY_WIN("coinflip.summary-win"),
+
+    HISTORY_HEADER("coinflip.history.header"),
+    HISTORY_ENTRY_WIN("coinflip.history.entry-win"),
+    HISTORY_ENTRY_LOSS("coinflip.history.entry-loss"),
+    HISTORY_FOOTER("coinflip.history.footer"),
+    HISTORY_EMPTY("coinflip.history.empty"),
+    HISTORY_PLAYER_NOT_FOUND("coinflip.history.player-not-found"),
+
+    ADMIN_STORAGE_STATS("admin.storage-stats"),
+    ADMIN_BACKUP_UNSUPPORTED("admin.backup.unsupported"),
+    ADMIN_BACKUP_STARTED("admin.backup.started"),
+    ADMIN_BACKUP_FAILED("admin.backup.failed"),
+    ADMIN_BACKUP_COMPLETED("admin.backup.completed"),
+    ADMIN_MIGRATE_UNKNOWN_TYPE("admin.migrate.unknown-type"),
+    ADMIN_MIGRATE_SAME_TYPE("admin.migrate.same-type"),
+    ADMIN_MIGRATE_ACTIVE_TARGET("admin.migrate.active-target"),
+    ADMIN_MIGRATE_ALREADY_RUNNING("admin.migrate.already-running"),
+    ADMIN_MIGRATE_STARTED("admin.migrate.started"),
+    ADMIN_MIGRATE_CONNECT_FAILED("admin.migrate.connect-failed"),
+    ADMIN_MIGRATE_RESUMING("admin.migrate.resuming"),
+    ADMIN_MIGRATE_PROGRESS("admin.migrate.progress"),
+    ADMIN_MIGRATE_COMPLETED("admin.migrate.completed"),
+    ADMIN_MIGRATE_COMPLETED_LIVE("admin.migrate.completed-live"),
+    ADMIN_MIGRATE_FAILED("admin.migrate.failed");
 
     private static FileConfiguration config;
 
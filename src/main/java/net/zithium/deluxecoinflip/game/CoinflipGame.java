@@ -15,11 +15,15 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CoinflipGame implements Cloneable {
 
+    private UUID gameId;
     private final UUID uuid;
+    private long createdAt;
     private OfflinePlayer player;
     private String provider;
     private long amount;
@@ -27,9 +31,19 @@ public class CoinflipGame implements Cloneable {
 
     private transient volatile boolean activeGame = false;
     private transient volatile UUID opponent;
+    private transient AtomicReference<ListingState> listingState = new AtomicReference<>(ListingState.OPEN);
 
     public CoinflipGame(UUID uuid, String provider, long amount) {
+        this(UUID.randomUUID(), uuid, provider, amount, System.currentTimeMillis());
+    }
+
+    /**
+     * Recreates a listing loaded from storage, keeping its id and creation time.
+     */
+    public CoinflipGame(UUID gameId, UUID uuid, String provider, long amount, long createdAt) {
+        this.gameId = gameId;
         this.uuid = uuid;
+        this.createdAt = createdAt;
         this.provider = provider;
         this.amount = amount;
         this.cachedHead = new ItemStack(Material.PLAYER_HEAD);
@@ -41,13 +55,40 @@ public class CoinflipGame implements Cloneable {
     }
 
     public CoinflipGame(UUID uuid, String provider, long amount, OfflinePlayer player, ItemStack cachedHead) {
+        this.gameId = UUID.randomUUID();
         this.uuid = uuid;
+        this.createdAt = System.currentTimeMillis();
         this.provider = provider;
         this.amount = amount;
         this.cachedHead = cachedHead;
         this.player = player;
     }
 
+    /**
+     * Gets the id given to a listing stored before listings had ids, when a player
+     * could only have one. It is derived from the creator, so converting the same
+     * listing twice gives it the same id.
+     *
+     * @param creator the UUID of the player who created the listing
+     */
+    public static UUID legacyGameId(UUID creator) {
+        return UUID.nameUUIDFromBytes(("coinflip:" + creator).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the id of this listing, unique even among several listings of the same player.
+     */
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Gets when this listing was created, in epoch milliseconds.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
     public UUID getPlayerUUID() {
         return uuid;
     }
@@ -80,17 +121,53 @@ public class CoinflipGame implements Cloneable {
         this.provider = provider;
     }
 
+    /**
+     * Copies this game as a new listing, with its own id and creation time.
+     */
     @Override
     public CoinflipGame clone() {
         try {
             CoinflipGame copy = (CoinflipGame) super.clone();
+            copy.gameId = UUID.randomUUID();
+            copy.createdAt = System.currentTimeMillis();
             copy.cachedHead = (this.cachedHead != null) ? this.cachedHead.clone() : null;
+            copy.listingState = new AtomicReference<>(ListingState.OPEN);
             return copy;
         } catch (CloneNotSupportedException ex) {
             throw new AssertionError(ex);
         }
     }
 
+    public ListingState getListingState() {
+        return listingState.get();
+    }
+
+    /**
+     * Claims this listing for a joiner. Exactly one of any number of concurrent
+     * claims or cancellations succeeds.
+     *
+     * @return {@code true} if the listing was open and is now claimed by the caller
+     */
+    public boolean tryClaim() {
+        return listingState.compareAndSet(ListingState.OPEN, ListingState.CLAIMED);
+    }
+
+    /**
+     * Withdraws this listing so it can be refunded. Fails if it was already claimed or cancelled.
+     *
+     * @return {@code true} if the listing was open and is now cancelled by the caller
+     */
+    public boolean tryCancel() {
+        return listingState.compareAndSet(ListingState.OPEN, ListingState.CANCELLED);
+    }
+
+    /**
+     * Reopens a listing whose joiner could not go through with the game.
+     */
+    public void releaseClaim() {
+        listingState.compareAndSet(ListingState.CLAIMED, ListingState.OPEN);
+    }
+
     public boolean isActiveGame() {
         return activeGame;
     }
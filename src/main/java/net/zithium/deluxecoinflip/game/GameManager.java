@@ -6,34 +6,46 @@
 package net.zithium.deluxecoinflip.game;
 
 import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.config.ConfigType;
+import net.zithium.deluxecoinflip.config.Messages;
+import net.zithium.deluxecoinflip.economy.EconomyManager;
+import net.zithium.deluxecoinflip.economy.provider.EconomyProvider;
 import net.zithium.deluxecoinflip.storage.StorageManager;
+import net.zithium.deluxecoinflip.utility.TextUtil;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public class GameManager {
 
     private final DeluxeCoinflipPlugin plugin;
-    private final Map<UUID, CoinflipGame> coinflipGames;
+    private final ListingRegistry listings;
     private final StorageManager storageManager;
+    private final ListingExpiryWheel expiryWheel;
 
     public GameManager(DeluxeCoinflipPlugin plugin) {
         this.plugin = plugin;
-        this.coinflipGames = new HashMap<>();
+        this.listings = new ListingRegistry();
         this.storageManager = plugin.getStorageManager();
+        this.expiryWheel = new ListingExpiryWheel(plugin, this::expireListings);
     }
 
     /**
      * Add a coinflip game
      *
-     * @param uuid The UUID of the player creating the game
      * @param game The coinflip game object
      */
-    public void addCoinflipGame(UUID uuid, CoinflipGame game) {
-        coinflipGames.put(uuid, game);
-        plugin.getScheduler().runTaskAsynchronously(() -> storageManager.getStorageHandler().saveCoinflip(game));
+    public void addCoinflipGame(CoinflipGame game) {
+        listings.put(game);
+        storageManager.getAsyncStorageHandler().saveCoinflip(game);
+        scheduleExpiry(game);
     }
 
     /**
@@ -43,40 +55,251 @@ public class GameManager {
      * work and shoots an exception. Please refrain from modifying
      * this logic unless you know what you're doing.</p>
      *
-     * @param uuid The UUID of the player removing the game
+     * @param gameId The id of the game to remove
      */
-    public void removeCoinflipGame(@NotNull UUID uuid) {
-        coinflipGames.remove(uuid);
+    public void removeCoinflipGame(@NotNull UUID gameId) {
+        listings.remove(gameId);
+        expiryWheel.cancel(gameId);
 
         if (!plugin.isEnabled()) {
             try {
-                storageManager.getStorageHandler().deleteCoinflip(uuid);
+                storageManager.getStorageHandler().deleteCoinflip(gameId);
             } catch (Exception ex) {
-                plugin.getLogger().warning("Failed to delete coinflip for " + uuid + " during shutdown: " + ex.getMessage());
+                plugin.getLogger().warning("Failed to delete coinflip " + gameId + " during shutdown: " + ex.getMessage());
             }
 
             return;
         }
 
-        plugin.getScheduler().runTaskAsynchronously(() -> {
-            try {
-                storageManager.getStorageHandler().deleteCoinflip(uuid);
-            } catch (Exception ex) {
-                plugin.getLogger().warning("Failed to delete coinflip for " + uuid + ": " + ex.getMessage());
+        storageManager.getAsyncStorageHandler().deleteCoinflip(gameId).exceptionally(ex -> {
+            plugin.getLogger().warning("Failed to delete coinflip " + gameId + ": " + ex.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Atomically claim a listing for a joiner and take it off the listings.
+     * When several players try to join the same listing at once, exactly one
+     * of them gets it. A claim also beats a cancellation made at the same time.
+     *
+     * @param gameId     The id of the listing
+     * @param joinerUuid The UUID of the player joining it
+     * @return The claimed game, or null if there is no open listing or the joiner created it
+     */
+    public @Nullable CoinflipGame tryClaim(@NotNull UUID gameId, @NotNull UUID joinerUuid) {
+        final CoinflipGame game = listings.get(gameId);
+        if (game == null || game.getPlayerUUID().equals(joinerUuid) || !game.tryClaim()) {
+            return null;
+        }
+
+        listings.remove(game);
+        expiryWheel.cancel(gameId);
+        return game;
+    }
+
+    /**
+     * Put a claimed listing back up, for when the joiner could not pay after all.
+     *
+     * @param game The claimed game
+     */
+    public void releaseClaim(@NotNull CoinflipGame game) {
+        game.releaseClaim();
+        if (listings.putIfAbsent(game)) {
+            // Its expiry was taken out of the wheel when it was claimed.
+            scheduleExpiry(game);
+        }
+    }
+
+    /**
+     * Atomically cancel a listing so its stake can be refunded. Fails if a joiner claimed it first.
+     * The caller still deletes it with {@link #removeCoinflipGame(UUID)} once refunded.
+     *
+     * @param gameId The id of the listing
+     * @return The cancelled game, or null if there is no open listing
+     */
+    public @Nullable CoinflipGame tryCancel(@NotNull UUID gameId) {
+        final CoinflipGame game = listings.get(gameId);
+        if (game == null || !game.tryCancel()) {
+            return null;
+        }
+
+        listings.remove(game);
+        expiryWheel.cancel(gameId);
+        return game;
+    }
+
+    /**
+     * Atomically cancel every open listing of a player. Listings claimed at the same moment are left to their game.
+     *
+     * @param creatorUuid The UUID of the player who created the listings
+     * @return The cancelled games, possibly empty
+     */
+    public List<CoinflipGame> tryCancelAll(@NotNull UUID creatorUuid) {
+        final List<CoinflipGame> cancelled = new ArrayList<>();
+        for (CoinflipGame game : List.copyOf(listings.byCreator(creatorUuid))) {
+            if (tryCancel(game.getGameId()) != null) {
+                cancelled.add(game);
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Whether a player is below the configured number of open listings per player.
+     *
+     * @param creatorUuid The UUID of the player creating a listing
+     */
+    public boolean canCreateListing(@NotNull UUID creatorUuid) {
+        return listings.countByCreator(creatorUuid) < getMaxListingsPerPlayer();
+    }
+
+    /**
+     * The number of listings a player may have open at once.
+     */
+    public int getMaxListingsPerPlayer() {
+        return Math.max(1, plugin.getConfigHandler(ConfigType.CONFIG).getConfig().getInt("settings.max-listings-per-player", 1));
+    }
+
+    /**
+     * Load the listings kept in storage by the previous run.
+     *
+     * @return the number of listings restored
+     */
+    public int restoreListings() {
+        final int[] restored = {0};
+        storageManager.getStorageHandler().forEachGame(game -> {
+            if (listings.putIfAbsent(game)) {
+                scheduleExpiry(game);
+                restored[0]++;
+            }
+        });
+        return restored[0];
+    }
+
+    /**
+     * Start expiring listings that outlive {@code settings.listing-ttl}. Listings already
+     * past it, such as restored ones, are refunded within the first second.
+     */
+    public void startExpiry() {
+        expiryWheel.start();
+    }
+
+    public void stopExpiry() {
+        expiryWheel.stop();
+    }
+
+    /**
+     * How long a listing stays open before it is refunded, in milliseconds, or 0 if listings never expire.
+     */
+    public long getListingTtlMillis() {
+        return Math.max(0L, plugin.getConfigHandler(ConfigType.CONFIG).getConfig().getLong("settings.listing-ttl", 0L)) * 1000L;
+    }
+
+    private void scheduleExpiry(CoinflipGame game) {
+        final long ttl = getListingTtlMillis();
+        if (ttl > 0L) {
+            expiryWheel.schedule(game, game.getCreatedAt() + ttl);
+        }
+    }
+
+    /**
+     * Cancel listings the wheel found past their deadline, then refund them together on the
+     * server thread. Listings joined or cancelled in the meantime fail to cancel and are skipped.
+     */
+    private void expireListings(List<CoinflipGame> due) {
+        final List<CoinflipGame> expired = new ArrayList<>();
+        for (CoinflipGame game : due) {
+            if (tryCancel(game.getGameId()) != null) {
+                expired.add(game);
+            }
+        }
+
+        // A listing cancelled while disabling keeps its escrow entry and is refunded on the next start.
+        if (expired.isEmpty() || !plugin.isEnabled()) {
+            return;
+        }
+
+        plugin.getScheduler().runTask(() -> refundExpired(expired));
+    }
+
+    private void refundExpired(List<CoinflipGame> expired) {
+        final EconomyManager economyManager = plugin.getEconomyManager();
+        final List<UUID> gameIds = new ArrayList<>(expired.size());
+        for (CoinflipGame game : expired) {
+            gameIds.add(game.getGameId());
+
+            final EconomyProvider provider = economyManager.getEconomyProvider(game.getProvider());
+            if (provider == null) {
+                // The escrow entry is kept, so the stake is recovered once the provider is back.
+                plugin.getLogger().warning("Missing economy provider '" + game.getProvider() + "'; refund of expired coinflip "
+                        + game.getGameId() + " deferred.");
+                continue;
             }
+
+            provider.deposit(plugin.getServer().getOfflinePlayer(game.getPlayerUUID()), game.getAmount());
+            storageManager.getEscrowJournal().clear(game.getGameId());
+
+            final Player creator = plugin.getServer().getPlayer(game.getPlayerUUID());
+            if (creator != null) {
+                Messages.LISTING_EXPIRED.send(creator,
+                        "{AMOUNT}", TextUtil.numberFormat(game.getAmount()),
+                        "{CURRENCY}", provider.getDisplayName());
+            }
+        }
+
+        storageManager.getAsyncStorageHandler().deleteCoinflips(gameIds).exceptionally(ex -> {
+            plugin.getLogger().warning("Failed to delete " + gameIds.size() + " expired coinflips: " + ex.getMessage());
+            return null;
         });
     }
 
+    /**
+     * Whether open listings are kept in storage across restarts instead of being refunded.
+     */
+    public boolean isRestoringListings() {
+        return plugin.getConfigHandler(ConfigType.CONFIG).getConfig().getBoolean("settings.restore-listings-on-restart", false);
+    }
+
     /**
      * Get all coinflip games
      *
-     * @return Map of UUID and CoinflipGame object
+     * @return Immutable map of game id and CoinflipGame object, as of the last change
      */
     public Map<UUID, CoinflipGame> getCoinflipGames() {
-        return coinflipGames;
+        return listings.snapshot().listings();
+    }
+
+    /**
+     * Browse the open listings in a sorted, filtered range, a page at a time
+     *
+     * @param query The provider filter, amount range and order
+     * @param after The key of the last listing of the previous page, or null for the first page
+     * @return Live view of the matching listings, only read as far as it is iterated
+     */
+    public Collection<CoinflipGame> browseListings(@NotNull ListingQuery query, @Nullable ListingRegistry.Key after) {
+        return listings.browse(query, after);
+    }
+
+    /**
+     * Get the registry of open listings, for lookups and changes from any thread
+     *
+     * @return The listing registry
+     */
+    public ListingRegistry getListings() {
+        return listings;
+    }
+
+    public CoinflipGame getCoinflipGame(@NotNull UUID gameId) {
+        return listings.get(gameId);
     }
 
-    public CoinflipGame getCoinflipGame(@NotNull UUID playerUUID) {
-        return coinflipGames.get(playerUUID);
+    /**
+     * Get the open listings of a player
+     *
+     * @param playerUUID The UUID of the player who created them
+     * @return Live read-only view of the player's listings
+     */
+    public Set<CoinflipGame> getCoinflipGames(@NotNull UUID playerUUID) {
+        return listings.byCreator(playerUUID);
     }
 }
@@ -0,0 +1,202 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+import me.nahu.scheduler.wrapper.task.WrappedTask;
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Finds listings whose time to live has run out, using a hashed timing wheel
+ * driven by one repeating async task instead of a task per listing.
+ *
+ * <p>The wheel has {@value #WHEEL_SIZE} buckets of one second each. A listing is
+ * placed in the bucket its deadline falls in, with the number of full turns to
+ * wait, so scheduling is constant time and each second only looks at one bucket.
+ * Deadlines further out than one turn are visited once per turn until they are due.
+ * The wheel keeps time by the wall clock and catches up after a lag spike.</p>
+ *
+ * <p>A listing joined or cancelled before its deadline is taken out with
+ * {@link #cancel(UUID)}. Its entry is marked and dropped the next time the wheel
+ * reaches its bucket, so cancelling is constant time too. A listing can still be
+ * joined just as it comes due, so the consumer must skip listings that are no
+ * longer open.</p>
+ */
+public final class ListingExpiryWheel {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final long TICK_MILLIS = 1000L;
+    private static final long TICK_SERVER_TICKS = 20L;
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final Consumer<List<CoinflipGame>> onExpired;
+    private final LongSupplier clock;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry>[] buckets;
+
+    // Only touched by the wheel task.
+    private long startMillis;
+    private long tick;
+    private WrappedTask task;
+
+    public ListingExpiryWheel(@NotNull DeluxeCoinflipPlugin plugin, @NotNull Consumer<List<CoinflipGame>> onExpired) {
+        this(plugin, onExpired, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a wheel that keeps time by the given clock, in epoch milliseconds.
+     * Its first second starts now; {@link #start()} starts it again.
+     */
+    @SuppressWarnings("unchecked")
+    ListingExpiryWheel(DeluxeCoinflipPlugin plugin, @NotNull Consumer<List<CoinflipGame>> onExpired, @NotNull LongSupplier clock) {
+        this.plugin = plugin;
+        this.onExpired = onExpired;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+        this.buckets = new ArrayDeque[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public void start() {
+        if (task != null) {
+            return;
+        }
+
+        startMillis = clock.getAsLong();
+        tick = 0L;
+        task = plugin.getScheduler().runTaskTimerAsynchronously(this::advance, TICK_SERVER_TICKS, TICK_SERVER_TICKS);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        pending.clear();
+        entries.clear();
+    }
+
+    /**
+     * Hands a listing to the expiry consumer once the given time has passed. Safe to call from any thread.
+     *
+     * @param game     the listing
+     * @param deadline when it expires, in epoch milliseconds
+     */
+    public void schedule(@NotNull CoinflipGame game, long deadline) {
+        final Entry entry = new Entry(game, deadline);
+        final Entry previous = entries.put(game.getGameId(), entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+
+        pending.add(entry);
+    }
+
+    /**
+     * Takes a listing out of the wheel, for when it was joined, cancelled or removed
+     * before its deadline. Safe to call from any thread, and for listings that were
+     * never scheduled.
+     *
+     * @param gameId the id of the listing
+     */
+    public void cancel(@NotNull UUID gameId) {
+        final Entry entry = entries.remove(gameId);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * Moves the wheel up to the current second and hands over every listing that came due.
+     * Run once a second by the wheel task.
+     */
+    void advance() {
+        final List<CoinflipGame> due = new ArrayList<>();
+        try {
+            final long target = (clock.getAsLong() - startMillis) / TICK_MILLIS;
+
+            Entry entry;
+            while ((entry = pending.poll()) != null) {
+                if (!entry.cancelled) {
+                    place(entry, due);
+                }
+            }
+
+            while (tick < target) {
+                tick++;
+                final Iterator<Entry> bucket = buckets[(int) (tick % WHEEL_SIZE)].iterator();
+                while (bucket.hasNext()) {
+                    final Entry next = bucket.next();
+                    if (next.cancelled) {
+                        bucket.remove();
+                        continue;
+                    }
+
+                    if (next.rounds > 0) {
+                        next.rounds--;
+                        continue;
+                    }
+
+                    bucket.remove();
+                    expire(next, due);
+                }
+            }
+        } catch (Exception ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while advancing the listing expiry wheel.", ex);
+        }
+
+        if (!due.isEmpty()) {
+            onExpired.accept(due);
+        }
+    }
+
+    private void place(Entry entry, List<CoinflipGame> due) {
+        // Round up, so a listing is never handed over before its deadline.
+        final long dueTick = Math.floorDiv(entry.deadline - startMillis + TICK_MILLIS - 1, TICK_MILLIS);
+        if (dueTick <= tick) {
+            expire(entry, due);
+            return;
+        }
+
+        entry.rounds = (dueTick - tick - 1) / WHEEL_SIZE;
+        buckets[(int) (dueTick % WHEEL_SIZE)].add(entry);
+    }
+
+    private void expire(Entry entry, List<CoinflipGame> due) {
+        entries.remove(entry.game.getGameId(), entry);
+        due.add(entry.game);
+    }
+
+    private static final class Entry {
+
+        private final CoinflipGame game;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Entry(CoinflipGame game, long deadline) {
+            this.game = game;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Which listings to browse and in what order.
+ *
+ * @param provider  only listings placed with this economy provider, or {@code null} for every provider
+ * @param sort      the order to return them in
+ * @param minAmount the smallest amount to include
+ * @param maxAmount the largest amount to include
+ */
+public record ListingQuery(@Nullable String provider, @NotNull ListingSort sort, long minAmount, long maxAmount) {
+
+    /**
+     * Every listing, in the given order.
+     */
+    public static ListingQuery all(@NotNull ListingSort sort) {
+        return new ListingQuery(null, sort, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public ListingQuery withProvider(@Nullable String provider) {
+        return new ListingQuery(provider, sort, minAmount, maxAmount);
+    }
+
+    public ListingQuery withSort(@NotNull ListingSort sort) {
+        return new ListingQuery(provider, sort, minAmount, maxAmount);
+    }
+
+    public ListingQuery withRange(long minAmount, long maxAmount) {
+        return new ListingQuery(provider, sort, minAmount, maxAmount);
+    }
+}
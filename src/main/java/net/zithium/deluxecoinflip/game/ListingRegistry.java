@@ -0,0 +1,331 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The open coinflip listings, keyed by game id and indexed by creator and by
+ * economy provider, so a player may have several listings open at once.
+ *
+ * <p>Listings are also kept ordered by amount, overall and per provider, so
+ * {@link #browse(ListingQuery, Key)} can walk any sorted, filtered range a page at
+ * a time without copying or sorting the whole set.</p>
+ *
+ * <p>Safe to use from any thread. Single lookups read the live maps without
+ * locking. Every change bumps a version counter, and {@link #snapshot()} returns
+ * an immutable copy that is only rebuilt after the version has moved, so any
+ * number of readers between two changes share one copy.</p>
+ *
+ * <p>The secondary indexes are updated while the id map entry is held, so two
+ * changes to the same listing cannot interleave and leave an index out of step
+ * with the id map. A reader racing a change may still briefly find a listing in
+ * one but not the other. A listing's creator, provider and amount must not
+ * change while it is listed.</p>
+ */
+public final class ListingRegistry {
+
+    private final ConcurrentMap<UUID, CoinflipGame> listings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Set<CoinflipGame>> byCreator = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Key, CoinflipGame> byAmount = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Key, CoinflipGame>> byProvider = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0L, Map.of(), List.of());
+
+    public @Nullable CoinflipGame get(@NotNull UUID gameId) {
+        return listings.get(gameId);
+    }
+
+    public boolean contains(@NotNull UUID gameId) {
+        return listings.containsKey(gameId);
+    }
+
+    public int size() {
+        return listings.size();
+    }
+
+    public boolean isEmpty() {
+        return listings.isEmpty();
+    }
+
+    /**
+     * Gets the open listings of a player, as a live read-only view.
+     */
+    public Set<CoinflipGame> byCreator(@NotNull UUID creator) {
+        final Set<CoinflipGame> games = byCreator.get(creator);
+        return games != null ? Collections.unmodifiableSet(games) : Set.of();
+    }
+
+    /**
+     * Gets the number of open listings of a player.
+     */
+    public int countByCreator(@NotNull UUID creator) {
+        final Set<CoinflipGame> games = byCreator.get(creator);
+        return games != null ? games.size() : 0;
+    }
+
+    /**
+     * Gets the open listings placed with an economy provider, from smallest to largest
+     * amount, as a live read-only view.
+     */
+    public Collection<CoinflipGame> byProvider(@NotNull String provider) {
+        final NavigableMap<Key, CoinflipGame> games = byProvider.get(providerKey(provider));
+        return games != null ? Collections.unmodifiableCollection(games.values()) : List.of();
+    }
+
+    /**
+     * Gets the listings matching a query, in its order, as a live read-only view that
+     * is only walked as far as it is read. Pass the key of the last listing of one
+     * page to start the next page straight after it.
+     *
+     * @param query the filter, amount range and order
+     * @param after the key of the last listing already seen, or {@code null} to start at the beginning
+     * @return the matching listings; changes made while iterating may or may not be seen
+     */
+    public Collection<CoinflipGame> browse(@NotNull ListingQuery query, @Nullable Key after) {
+        if (query.minAmount() > query.maxAmount()) {
+            return List.of();
+        }
+
+        final NavigableMap<Key, CoinflipGame> source = query.provider() != null
+                ? byProvider.get(providerKey(query.provider())) : byAmount;
+        if (source == null) {
+            return List.of();
+        }
+
+        NavigableMap<Key, CoinflipGame> range = source.subMap(Key.lowest(query.minAmount()), true, Key.highest(query.maxAmount()), true);
+        if (query.sort().isDescending()) {
+            range = range.descendingMap();
+        }
+
+        if (after != null) {
+            range = range.tailMap(after, false);
+        }
+
+        return Collections.unmodifiableCollection(range.values());
+    }
+
+    /**
+     * Gets up to one page of the listings matching a query.
+     *
+     * @see #browse(ListingQuery, Key)
+     */
+    public List<CoinflipGame> page(@NotNull ListingQuery query, @Nullable Key after, int limit) {
+        final List<CoinflipGame> page = new ArrayList<>(Math.min(limit, 64));
+        for (CoinflipGame game : browse(query, after)) {
+            if (page.size() >= limit) {
+                break;
+            }
+
+            page.add(game);
+        }
+        return page;
+    }
+
+    /**
+     * Adds a listing, or replaces the one with the same id.
+     *
+     * @return the listing it replaced, or {@code null}
+     */
+    public @Nullable CoinflipGame put(@NotNull CoinflipGame game) {
+        final CoinflipGame[] previous = new CoinflipGame[1];
+        listings.compute(game.getGameId(), (ignored, current) -> {
+            if (current != null && current != game) {
+                unindex(current);
+            }
+
+            previous[0] = current;
+            index(game);
+            version.incrementAndGet();
+            return game;
+        });
+        return previous[0];
+    }
+
+    /**
+     * Adds a listing unless one with the same id is already listed.
+     *
+     * @return {@code true} if the listing was added
+     */
+    public boolean putIfAbsent(@NotNull CoinflipGame game) {
+        final boolean[] added = new boolean[1];
+        listings.computeIfAbsent(game.getGameId(), ignored -> {
+            index(game);
+            version.incrementAndGet();
+            added[0] = true;
+            return game;
+        });
+        return added[0];
+    }
+
+    /**
+     * Removes a listing by id.
+     *
+     * @return the removed listing, or {@code null} if there was none
+     */
+    public @Nullable CoinflipGame remove(@NotNull UUID gameId) {
+        final CoinflipGame[] removed = new CoinflipGame[1];
+        listings.computeIfPresent(gameId, (ignored, current) -> {
+            unindex(current);
+            version.incrementAndGet();
+            removed[0] = current;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes a listing only if it is still the one listed under its id.
+     *
+     * @return {@code true} if the listing was removed
+     */
+    public boolean remove(@NotNull CoinflipGame game) {
+        final boolean[] removed = new boolean[1];
+        listings.computeIfPresent(game.getGameId(), (ignored, current) -> {
+            if (current != game) {
+                return current;
+            }
+
+            unindex(game);
+            version.incrementAndGet();
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Gets a counter that changes whenever a listing is added, replaced or removed.
+     * Readers can keep the version they last rendered and skip work while it is unchanged.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets an immutable copy of the listings, shared by every caller until the next change.
+     */
+    public Snapshot snapshot() {
+        final Snapshot current = snapshot;
+        final long expected = version.get();
+        if (current.version() == expected) {
+            return current;
+        }
+
+        // Labelled with the version read before copying, so a change made during the copy rebuilds it next time.
+        final Map<UUID, CoinflipGame> copy = Map.copyOf(listings);
+        final Snapshot rebuilt = new Snapshot(expected, copy, List.copyOf(copy.values()));
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    private void index(CoinflipGame game) {
+        add(byCreator, game.getPlayerUUID(), game);
+
+        final Key key = Key.of(game);
+        byAmount.put(key, game);
+        byProvider.compute(providerKey(game.getProvider()), (ignored, games) -> {
+            final ConcurrentNavigableMap<Key, CoinflipGame> map = games != null ? games : new ConcurrentSkipListMap<>();
+            map.put(key, game);
+            return map;
+        });
+    }
+
+    private void unindex(CoinflipGame game) {
+        remove(byCreator, game.getPlayerUUID(), game);
+
+        final Key key = Key.of(game);
+        byAmount.remove(key, game);
+        byProvider.computeIfPresent(providerKey(game.getProvider()), (ignored, games) -> {
+            games.remove(key, game);
+            return games.isEmpty() ? null : games;
+        });
+    }
+
+    private static <K> void add(ConcurrentMap<K, Set<CoinflipGame>> index, K key, CoinflipGame game) {
+        index.compute(key, (ignored, games) -> {
+            final Set<CoinflipGame> set = games != null ? games : ConcurrentHashMap.newKeySet();
+            set.add(game);
+            return set;
+        });
+    }
+
+    private static <K> void remove(ConcurrentMap<K, Set<CoinflipGame>> index, K key, CoinflipGame game) {
+        index.computeIfPresent(key, (ignored, games) -> {
+            games.remove(game);
+            return games.isEmpty() ? null : games;
+        });
+    }
+
+    private static String providerKey(String provider) {
+        return provider.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The position of a listing in amount order. Ties are broken by game id, so every
+     * listing has its own key and a page can resume right after any one of them.
+     *
+     * @param amount the listing's amount
+     * @param gameId the listing's id
+     */
+    public record Key(long amount, UUID gameId) implements Comparable<Key> {
+
+        private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+        private static final UUID MAX_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        public static Key of(@NotNull CoinflipGame game) {
+            return new Key(game.getAmount(), game.getGameId());
+        }
+
+        private static Key lowest(long amount) {
+            return new Key(amount, MIN_ID);
+        }
+
+        private static Key highest(long amount) {
+            return new Key(amount, MAX_ID);
+        }
+
+        @Override
+        public int compareTo(@NotNull Key other) {
+            final int byAmount = Long.compare(amount, other.amount);
+            return byAmount != 0 ? byAmount : gameId.compareTo(other.gameId);
+        }
+    }
+
+    /**
+     * An immutable view of the listings at one version.
+     *
+     * @param version  the registry version the copy was taken at
+     * @param listings the listings by game id
+     * @param games    the listings in no particular order
+     */
+    public record Snapshot(long version, Map<UUID, CoinflipGame> listings, List<CoinflipGame> games) {
+
+        public boolean isEmpty() {
+            return games.isEmpty();
+        }
+
+        public int size() {
+            return games.size();
+        }
+    }
+}
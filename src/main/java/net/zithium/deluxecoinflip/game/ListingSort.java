@@ -0,0 +1,27 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+/**
+ * The orders listings can be browsed in.
+ */
+public enum ListingSort {
+
+    AMOUNT_DESCENDING,
+    AMOUNT_ASCENDING;
+
+    public boolean isDescending() {
+        return this == AMOUNT_DESCENDING;
+    }
+
+    /**
+     * Gets the sort after this one, for cycling through them with a single button.
+     */
+    public ListingSort next() {
+        final ListingSort[] values = values();
+        return values[(ordinal() + 1) % values.length];
+    }
+}
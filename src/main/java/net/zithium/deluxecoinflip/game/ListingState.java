@@ -0,0 +1,28 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+/**
+ * Where a listing is in its life. A listing only ever leaves {@link #OPEN} once,
+ * either to a joiner or to its creator, so its stake is paid out exactly once.
+ */
+public enum ListingState {
+
+    /**
+     * Listed and waiting for an opponent.
+     */
+    OPEN,
+
+    /**
+     * Taken by a joiner; the game is starting or running.
+     */
+    CLAIMED,
+
+    /**
+     * Withdrawn by its creator, a quit or shutdown, and refunded.
+     */
+    CANCELLED
+}
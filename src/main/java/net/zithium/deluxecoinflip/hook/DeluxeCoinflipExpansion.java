@@ -5,12 +5,20 @@ package net.zithium.deluxecoinflip.hook;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.leaderboard.LeaderboardEntry;
+import net.zithium.deluxecoinflip.storage.LeaderboardStat;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
 import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
 import net.zithium.deluxecoinflip.storage.StorageManager;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.text.NumberFormat;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.UUID;
 
 public class DeluxeCoinflipExpansion extends PlaceholderExpansion {
 
@@ -51,6 +59,11 @@ public class DeluxeCoinflipExpansion extends PlaceholderExpansion {
 
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String identifier) {
+        String topStat = formatTopStat(identifier);
+        if (topStat != null) {
+            return topStat;
+        }
+
         if (player == null) return "";
 
         // Hearts placeholders: delegate to internal placeholder registry for real values
@@ -63,15 +76,137 @@ public class DeluxeCoinflipExpansion extends PlaceholderExpansion {
                 return plugin.getPlaceholdersApi().apply("{HEARTS_BET}", player);
         }
 
+        String periodStat = formatPeriodStat(player.getUniqueId(), identifier);
+        if (periodStat != null) {
+            return periodStat;
+        }
+
         Optional<PlayerData> playerDataOptional = storageManager.getPlayer(player.getUniqueId());
         if (playerDataOptional.isEmpty()) {
             return "N/A";
         }
 
-        PlayerData playerData = playerDataOptional.get();
+        return formatStat(playerDataOptional.get(), identifier);
+    }
+
+    @Override
+    public String onRequest(OfflinePlayer player, @NotNull String identifier) {
+        String topStat = formatTopStat(identifier);
+        if (topStat != null) {
+            return topStat;
+        }
+
+        if (player == null) return "";
+
+        if (player.isOnline()) {
+            return onPlaceholderRequest(player.getPlayer(), identifier);
+        }
+
+        String periodStat = formatPeriodStat(player.getUniqueId(), identifier);
+        if (periodStat != null) {
+            return periodStat;
+        }
+
+        // Offline players are answered from memory; the first request for one starts the load.
+        PlayerData playerData = storageManager.getOfflineCache().getIfLoaded(player.getUniqueId());
+        if (playerData == null) {
+            return "N/A";
+        }
+
+        return formatStat(playerData, identifier);
+    }
+
+    /**
+     * Formats {@code top_<stat>_<place>_<name|value|value_formatted>} placeholders from the in-memory leaderboards.
+     *
+     * @return the value, or {@code null} if this is not a leaderboard placeholder
+     */
+    private String formatTopStat(String identifier) {
+        String id = identifier.toLowerCase(Locale.ROOT);
+        if (!id.startsWith("top_")) {
+            return null;
+        }
+
+        String field;
+        if (id.endsWith("_value_formatted")) {
+            field = "value_formatted";
+        } else if (id.endsWith("_value")) {
+            field = "value";
+        } else if (id.endsWith("_name")) {
+            field = "name";
+        } else {
+            return null;
+        }
+
+        String statAndPlace = id.substring("top_".length(), id.length() - field.length() - 1);
+        int separator = statAndPlace.lastIndexOf('_');
+        if (separator < 0) {
+            return null;
+        }
+
+        LeaderboardStat stat = LeaderboardStat.fromPlaceholderName(statAndPlace.substring(0, separator));
+        int place;
+        try {
+            place = Integer.parseInt(statAndPlace.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+
+        if (stat == null) {
+            return null;
+        }
+
+        LeaderboardEntry entry = storageManager.getLeaderboards().getBoard(stat).get(place);
+        if (entry == null) {
+            return field.equals("name") ? "N/A" : "0";
+        }
+
+        return switch (field) {
+            case "name" -> entry.name() != null ? entry.name() : "N/A";
+            case "value" -> String.valueOf(entry.value());
+            default -> NumberFormat.getNumberInstance(Locale.US).format(entry.value());
+        };
+    }
+
+    /**
+     * Formats {@code <daily|weekly|monthly>_<stat>} placeholders from the period stats cache.
+     *
+     * @return the value, {@code "N/A"} while the stats load, or {@code null} if this is not a period placeholder
+     */
+    private String formatPeriodStat(UUID uuid, String identifier) {
+        int separator = identifier.indexOf('_');
+        if (separator < 0) {
+            return null;
+        }
+
+        StatPeriod period = StatPeriod.fromPlaceholderName(identifier.substring(0, separator));
+        if (period == null) {
+            return null;
+        }
+
+        PeriodStats stats = storageManager.getPeriodCache().getIfLoaded(uuid, period);
+        if (stats == null) {
+            return "N/A";
+        }
+
+        return switch (identifier.substring(separator + 1).toLowerCase()) {
+            case "wins" -> String.valueOf(stats.wins());
+            case "losses" -> String.valueOf(stats.losses());
+            case "games" -> String.valueOf(stats.totalGames());
+            case "profit" -> String.valueOf(stats.profit());
+            case "profit_formatted" -> stats.profitFormatted();
+            case "total_losses" -> String.valueOf(stats.totalLosses());
+            case "total_losses_formatted" -> stats.totalLossesFormatted();
+            case "total_gambled" -> String.valueOf(stats.totalGambled());
+            case "total_gambled_formatted" -> stats.totalGambledFormatted();
+            default -> "";
+        };
+    }
+
+    private String formatStat(PlayerData playerData, String identifier) {
         return switch (identifier.toLowerCase()) {
             // Existing placeholders retained for compatibility
-            case "games_played", "total_games" -> String.valueOf(plugin.getGameManager().getCoinflipGames().size());
+            case "games_played", "total_games" -> String.valueOf(plugin.getGameManager().getListings().size());
             case "wins" -> String.valueOf(playerData.getWins());
             case "losses" -> String.valueOf(playerData.getLosses());
             case "win_percentage" -> String.valueOf(playerData.getWinPercentage());
@@ -77,7 +77,7 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
             case "total_gambled" -> String.valueOf(playerData.getTotalGambled());
             case "total_gambled_formatted" -> String.valueOf(playerData.getTotalGambledFormatted());
             case "display_broadcast_messages" -> String.valueOf(playerData.isDisplayBroadcastMessages());
-            case "total_games" -> String.valueOf(plugin.getGameManager().getCoinflipGames().size());
+            case "total_games" -> String.valueOf(plugin.getGameManager().getListings().size());
             default -> null;
         };
     }
@@ -0,0 +1,151 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.leaderboard;
+
+import net.zithium.deluxecoinflip.storage.LeaderboardStat;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The highest ranked players for one stat, kept up to date in memory.
+ *
+ * <p>More players are tracked than are shown, so a player who drops out of the
+ * shown places can be replaced without asking storage who is next. Once any
+ * player has been evicted, the board remembers the highest evicted value: every
+ * player it does not track is known to be at or below it, so a player only needs
+ * to be tracked again once they rise above it. If so many tracked players drop
+ * below it that the shown places can no longer be filled, the board must be
+ * seeded again.</p>
+ *
+ * <p>Reads go to an immutable copy of the shown places, so they never wait on an update.</p>
+ */
+public final class Leaderboard {
+
+    private static final Comparator<LeaderboardEntry> RANKING = Comparator
+            .comparingLong(LeaderboardEntry::value).reversed()
+            .thenComparing(LeaderboardEntry::uuid);
+
+    private final LeaderboardStat stat;
+    private final int size;
+    private final int capacity;
+
+    private final TreeSet<LeaderboardEntry> ranked = new TreeSet<>(RANKING);
+    private final Map<UUID, LeaderboardEntry> entries = new HashMap<>();
+    private boolean truncated;
+    private long floor = Long.MIN_VALUE;
+
+    private volatile List<LeaderboardEntry> top = List.of();
+
+    /**
+     * @param stat     the stat players are ranked by
+     * @param size     the number of places shown
+     * @param capacity the number of players tracked, at least {@code size}
+     */
+    public Leaderboard(LeaderboardStat stat, int size, int capacity) {
+        this.stat = stat;
+        this.size = size;
+        this.capacity = Math.max(size, capacity);
+    }
+
+    /**
+     * Replaces the board with players read from storage.
+     *
+     * @param seed     the highest ranked stored players, at most {@link #getCapacity()} of them
+     * @param complete {@code true} if {@code seed} holds every stored player
+     */
+    public synchronized void seed(Collection<LeaderboardEntry> seed, boolean complete) {
+        ranked.clear();
+        entries.clear();
+        for (LeaderboardEntry entry : seed) {
+            ranked.add(entry);
+            entries.put(entry.uuid(), entry);
+        }
+
+        truncated = !complete;
+        floor = truncated && !ranked.isEmpty() ? ranked.last().value() : Long.MIN_VALUE;
+        publish();
+    }
+
+    /**
+     * Records a player's new value of the stat.
+     *
+     * @param uuid  the player's UUID
+     * @param name  the player's name, or {@code null} to keep the known one
+     * @param value the player's new value
+     * @return {@code true} if the board can no longer fill every shown place and must be seeded again
+     */
+    public synchronized boolean update(UUID uuid, @Nullable String name, long value) {
+        final LeaderboardEntry old = entries.remove(uuid);
+        if (old != null) {
+            ranked.remove(old);
+            if (name == null) {
+                name = old.name();
+            }
+        }
+
+        if (!truncated || value > floor) {
+            final LeaderboardEntry entry = new LeaderboardEntry(uuid, name, value);
+            ranked.add(entry);
+            entries.put(uuid, entry);
+            while (ranked.size() > capacity) {
+                final LeaderboardEntry evicted = ranked.pollLast();
+                entries.remove(evicted.uuid());
+                truncated = true;
+                floor = Math.max(floor, evicted.value());
+            }
+        }
+
+        publish();
+        return truncated && ranked.size() < size;
+    }
+
+    /**
+     * Gets a shown place.
+     *
+     * @param rank the place, starting at 1
+     * @return the entry, or {@code null} if nobody holds that place
+     */
+    public @Nullable LeaderboardEntry get(int rank) {
+        final List<LeaderboardEntry> top = this.top;
+        return rank >= 1 && rank <= top.size() ? top.get(rank - 1) : null;
+    }
+
+    public List<LeaderboardEntry> getTop() {
+        return top;
+    }
+
+    public LeaderboardStat getStat() {
+        return stat;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void publish() {
+        final List<LeaderboardEntry> top = new ArrayList<>(Math.min(size, ranked.size()));
+        for (LeaderboardEntry entry : ranked) {
+            if (top.size() == size) {
+                break;
+            }
+            top.add(entry);
+        }
+
+        this.top = List.copyOf(top);
+    }
+}
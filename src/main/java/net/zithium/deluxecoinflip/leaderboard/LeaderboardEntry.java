@@ -0,0 +1,20 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.leaderboard;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * A player's place on a leaderboard.
+ *
+ * @param uuid  the player's UUID
+ * @param name  the player's last known name, or {@code null} if the server has never seen it
+ * @param value the player's value of the ranked stat
+ */
+public record LeaderboardEntry(UUID uuid, @Nullable String name, long value) {
+}
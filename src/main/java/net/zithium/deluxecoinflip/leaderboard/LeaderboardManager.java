@@ -0,0 +1,113 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.leaderboard;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.storage.LeaderboardStat;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.StorageExecutor;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Keeps a {@link Leaderboard} for every {@link LeaderboardStat}.
+ *
+ * <p>Boards are seeded from storage once on startup and then updated from game
+ * settlement, so placeholders read them without touching the database. A board
+ * is only seeded again if it can no longer fill its shown places.</p>
+ */
+public final class LeaderboardManager {
+
+    // Extra players tracked per shown place, so drop-outs rarely force a reseed.
+    private static final int CAPACITY_FACTOR = 4;
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final StorageHandler storageHandler;
+    private final StorageExecutor executor;
+    private final Map<LeaderboardStat, Leaderboard> boards = new EnumMap<>(LeaderboardStat.class);
+    private final Set<LeaderboardStat> seeding = ConcurrentHashMap.newKeySet();
+
+    public LeaderboardManager(DeluxeCoinflipPlugin plugin, StorageHandler storageHandler, StorageExecutor executor, int size) {
+        this.plugin = plugin;
+        this.storageHandler = storageHandler;
+        this.executor = executor;
+
+        final int places = Math.max(1, size);
+        for (LeaderboardStat stat : LeaderboardStat.values()) {
+            boards.put(stat, new Leaderboard(stat, places, places * CAPACITY_FACTOR));
+        }
+    }
+
+    /**
+     * Seeds every board from storage in the background.
+     */
+    public void seedAll() {
+        boards.keySet().forEach(this::seed);
+    }
+
+    /**
+     * Records a player's current stats on every board.
+     *
+     * @param data the player's data
+     * @param name the player's name, or {@code null} to look it up
+     */
+    public void update(PlayerData data, @Nullable String name) {
+        final String resolved = name != null ? name : nameOf(data.getUUID());
+        for (Leaderboard board : boards.values()) {
+            if (board.update(data.getUUID(), resolved, board.getStat().valueOf(data))) {
+                seed(board.getStat());
+            }
+        }
+    }
+
+    public Leaderboard getBoard(LeaderboardStat stat) {
+        return boards.get(stat);
+    }
+
+    private void seed(LeaderboardStat stat) {
+        if (!seeding.add(stat)) {
+            return;
+        }
+
+        final Leaderboard board = boards.get(stat);
+        executor.read(null, () -> {
+            final List<PlayerData> players = storageHandler.getTopPlayers(stat, board.getCapacity());
+            final List<LeaderboardEntry> entries = new ArrayList<>(players.size());
+            for (PlayerData player : players) {
+                entries.add(new LeaderboardEntry(player.getUUID(), nameOf(player.getUUID()), stat.valueOf(player)));
+            }
+
+            board.seed(entries, players.size() < board.getCapacity());
+
+            // Online players' latest stats may not have been written yet.
+            final Collection<PlayerData> online = plugin.getStorageManager().getPlayerDataMap().values();
+            for (PlayerData player : online) {
+                board.update(player.getUUID(), nameOf(player.getUUID()), stat.valueOf(player));
+            }
+            return null;
+        }).whenComplete((result, error) -> {
+            seeding.remove(stat);
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error occurred while loading the " + stat.placeholderName() + " leaderboard.", error);
+            }
+        });
+    }
+
+    private static @Nullable String nameOf(UUID uuid) {
+        return Bukkit.getOfflinePlayer(uuid).getName();
+    }
+}
@@ -38,11 +38,14 @@ public final class ActiveGameQuitListener implements Listener {
     public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
         final Player quitter = event.getPlayer();
 
-        final CoinflipGame game = this.activeGamesCache.getGame(quitter.getUniqueId());
-        if (game == null || !game.isActiveGame()) {
-            return;
+        for (CoinflipGame game : this.activeGamesCache.getGames(quitter.getUniqueId())) {
+            if (game.isActiveGame()) {
+                refund(game);
+            }
         }
+    }
 
+    private void refund(@NotNull CoinflipGame game) {
         final Set<UUID> participants = new LinkedHashSet<>(this.activeGamesCache.getParticipants(game));
 
         game.stopAnimation();
@@ -53,7 +56,7 @@ public final class ActiveGameQuitListener implements Listener {
         final EconomyProvider economyProvider = economyManager.getEconomyProvider(game.getProvider());
         if (economyProvider == null) {
             this.plugin.getLogger().warning("Missing economy provider '" + game.getProvider() + "'; refunds skipped.");
-            this.plugin.getGameManager().removeCoinflipGame(game.getPlayerUUID());
+            this.plugin.getGameManager().removeCoinflipGame(game.getGameId());
             return;
         }
 
@@ -73,6 +76,8 @@ public final class ActiveGameQuitListener implements Listener {
             economyProvider.deposit(server.getOfflinePlayer(participantId), amount);
         }
 
-        this.plugin.getGameManager().removeCoinflipGame(game.getPlayerUUID());
+        this.plugin.getStorageManager().getEscrowJournal().clear(game.getGameId());
+
+        this.plugin.getGameManager().removeCoinflipGame(game.getGameId());
     }
 }
@@ -29,17 +29,18 @@ public record GameQuitListener(DeluxeCoinflipPlugin plugin) implements Listener
     public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
         final Player quitter = event.getPlayer();
 
-        final CoinflipGame game = plugin.getGameManager().getCoinflipGame(quitter.getUniqueId());
-        if (game == null || game.isActiveGame()) {
-            return;
+        // Listings claimed by a joiner at the same moment are left to their game.
+        for (CoinflipGame game : plugin.getGameManager().tryCancelAll(quitter.getUniqueId())) {
+            refund(quitter, game);
         }
+    }
 
+    private void refund(@NotNull Player quitter, @NotNull CoinflipGame game) {
         final EconomyManager economyManager = plugin.getEconomyManager();
         final EconomyProvider economyProvider = economyManager.getEconomyProvider(game.getProvider());
         if (economyProvider == null) {
             plugin.getLogger().warning("[DeluxeCoinflip] Missing economy provider '" + game.getProvider() + "'; refund skipped for " + quitter.getName() + ".");
-            plugin.getScheduler().runTaskAsynchronously(() -> plugin.getStorageManager().getStorageHandler().deleteCoinflip(game.getPlayerUUID()));
-            plugin.getGameManager().removeCoinflipGame(game.getPlayerUUID());
+            plugin.getGameManager().removeCoinflipGame(game.getGameId());
             return;
         }
 
@@ -47,6 +48,7 @@ public record GameQuitListener(DeluxeCoinflipPlugin plugin) implements Listener
         final String amountFormatted = String.format(Locale.US, "%,d", amount);
 
         economyProvider.deposit(game.getOfflinePlayer(), amount);
+        plugin.getStorageManager().getEscrowJournal().clear(game.getGameId());
 
         if (quitter.isOnline()) {
             Messages.GAME_REFUNDED.send(
@@ -56,7 +58,6 @@ public record GameQuitListener(DeluxeCoinflipPlugin plugin) implements Listener
             );
         }
 
-        plugin.getScheduler().runTaskAsynchronously(() -> plugin.getStorageManager().getStorageHandler().deleteCoinflip(game.getPlayerUUID()));
-        plugin.getGameManager().removeCoinflipGame(game.getPlayerUUID());
+        plugin.getGameManager().removeCoinflipGame(game.getGameId());
     }
 }
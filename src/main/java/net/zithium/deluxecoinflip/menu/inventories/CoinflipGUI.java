@@ -16,6 +16,8 @@ import net.zithium.deluxecoinflip.config.Messages;
 import net.zithium.deluxecoinflip.economy.EconomyManager;
 import net.zithium.deluxecoinflip.game.CoinflipGame;
 import net.zithium.deluxecoinflip.game.GameAnimationRunner;
+import net.zithium.deluxecoinflip.storage.EscrowJournal;
+import net.zithium.deluxecoinflip.storage.GameHistoryEntry;
 import net.zithium.deluxecoinflip.storage.PlayerData;
 import net.zithium.deluxecoinflip.storage.StorageManager;
 import net.zithium.deluxecoinflip.utility.ItemStackBuilder;
@@ -175,15 +177,20 @@ public class CoinflipGUI implements Listener {
                                 return;
                             }
 
+                            EscrowJournal escrowJournal = plugin.getStorageManager().getEscrowJournal();
+                            escrowJournal.recordSettled(game.getGameId(), winner.getUniqueId(), providedWinAmount);
                             economyManager.getEconomyProvider(game.getProvider()).deposit(winner, providedWinAmount);
+                            escrowJournal.clear(game.getGameId());
                             new CoinflipCompletedEvent(winner, loser, providedWinAmount).callEvent();
-                            plugin.getGameManager().removeCoinflipGame(game.getPlayerUUID());
+                            plugin.getGameManager().removeCoinflipGame(game.getGameId());
                             plugin.getActiveGamesCache().unregister(game);
                         });
 
                         StorageManager storageManager = plugin.getStorageManager();
                         updatePlayerStats(storageManager, winner, finalWinAmount, beforeTax, true);
                         updatePlayerStats(storageManager, loser, 0L, beforeTax, false);
+                        storageManager.recordGame(new GameHistoryEntry(winner.getUniqueId(), loser.getUniqueId(),
+                                game.getProvider(), game.getAmount(), taxed));
 
                         String winAmountFormatted = TextUtil.numberFormat(finalWinAmount);
                         String taxedFormatted = TextUtil.numberFormat(taxed);
@@ -252,6 +259,7 @@ public class CoinflipGUI implements Listener {
                 playerData.updateLosses(beforeTax);
                 playerData.updateGambled(beforeTax);
             }
+            storageManager.getLeaderboards().update(playerData, player.getName());
         } else {
             if (isWinner) {
                 storageManager.updateOfflinePlayerWin(player.getUniqueId(), winAmount, beforeTax);
@@ -198,7 +198,7 @@ public class GameBuilderGUI {
         GuiItem item = new GuiItem(ItemStackBuilder.getItemStack(section).build(), event -> {
             EconomyProvider provider = economyManager.getEconomyProvider(game.getProvider());
 
-            if (plugin.getGameManager().getCoinflipGames().containsKey(player.getUniqueId())) {
+            if (!plugin.getGameManager().canCreateListing(player.getUniqueId())) {
                 handleError(player, event, cfg, "gamebuilder-gui.error-game-exists");
                 return;
             }
@@ -226,24 +226,32 @@ public class GameBuilderGUI {
                 return;
             }
 
-            provider.withdraw(player, amount);
-            plugin.getGameManager().addCoinflipGame(player.getUniqueId(), game.clone());
+            CoinflipGame listing = game.clone();
+            plugin.getStorageManager().getEscrowJournal()
+                    .withdrawStake(listing, provider, player, () -> plugin.getGameManager().canCreateListing(player.getUniqueId()))
+                    .thenAccept(withdrawn -> {
+                        if (!withdrawn) {
+                            Messages.CREATE_FAILED.send(player);
+                            return;
+                        }
+                        plugin.getGameManager().addCoinflipGame(listing);
 
-            String formatted = NumberFormat.getNumberInstance(Locale.US).format(amount);
+                        String formatted = NumberFormat.getNumberInstance(Locale.US).format(amount);
 
-            if (cfg.getBoolean("settings.broadcast-coinflip-creation")) {
-                Messages.COINFLIP_CREATED_BROADCAST.broadcast(
-                        "{PLAYER}", player.getName(),
-                        "{CURRENCY}", provider.getDisplayName(),
-                        "{AMOUNT}", formatted
-                );
-            }
+                        if (cfg.getBoolean("settings.broadcast-coinflip-creation")) {
+                            Messages.COINFLIP_CREATED_BROADCAST.broadcast(
+                                    "{PLAYER}", player.getName(),
+                                    "{CURRENCY}", provider.getDisplayName(),
+                                    "{AMOUNT}", formatted
+                            );
+                        }
 
-            Messages.CREATED_GAME.send(
-                    player,
-                    "{AMOUNT}", formatted,
-                    "{CURRENCY}", provider.getDisplayName()
-            );
+                        Messages.CREATED_GAME.send(
+                                player,
+                                "{AMOUNT}", formatted,
+                                "{CURRENCY}", provider.getDisplayName()
+                        );
+                    });
         });
 
         gui.setItem(section.getInt("slot"), item);
@@ -6,8 +6,8 @@
 package net.zithium.deluxecoinflip.menu.inventories;
 
 import dev.triumphteam.gui.components.GuiAction;
+import dev.triumphteam.gui.guis.Gui;
 import dev.triumphteam.gui.guis.GuiItem;
-import dev.triumphteam.gui.guis.PaginatedGui;
 import net.kyori.adventure.text.Component;
 import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
 import net.zithium.deluxecoinflip.config.ConfigType;
@@ -16,6 +16,9 @@ import net.zithium.deluxecoinflip.economy.EconomyManager;
 import net.zithium.deluxecoinflip.economy.provider.EconomyProvider;
 import net.zithium.deluxecoinflip.game.CoinflipGame;
 import net.zithium.deluxecoinflip.game.GameManager;
+import net.zithium.deluxecoinflip.game.ListingQuery;
+import net.zithium.deluxecoinflip.game.ListingRegistry;
+import net.zithium.deluxecoinflip.game.ListingSort;
 import net.zithium.deluxecoinflip.storage.PlayerData;
 import net.zithium.deluxecoinflip.utility.ItemStackBuilder;
 import net.zithium.deluxecoinflip.utility.TextUtil;
@@ -27,13 +30,12 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -65,16 +67,7 @@ public class GamesGUI {
         String guiTitle = TextUtil.color(config.getString("games-gui.title", "&lCOINFLIP GAMES"));
         int guiRows = config.getInt("games-gui.rows", 6);
 
-        String materialName = config.getString("games-gui.coinflip-game.material", "PLAYER_HEAD");
-        ItemStackBuilder materialBuilder = null;
-        if (!"PLAYER_HEAD".equalsIgnoreCase(materialName)) {
-            Material material = Material.matchMaterial(materialName);
-            if (material != null) {
-                materialBuilder = new ItemStackBuilder(material);
-            }
-        }
-
-        PaginatedGui gui = dev.triumphteam.gui.guis.Gui.paginated()
+        Gui gui = Gui.gui()
                 .rows(guiRows)
                 .title(Component.text(guiTitle))
                 .create();
@@ -83,8 +76,10 @@ public class GamesGUI {
 
         loadFillerItems(config, gui, player, playerData);
 
-        placeSectionItem(config, gui, "games-gui.previous-page", player, playerData, events -> gui.previous());
-        placeSectionItem(config, gui, "games-gui.next-page", player, playerData, events -> gui.next());
+        ListingBrowser browser = new ListingBrowser(gui, player, playerData, config);
+
+        placeSectionItem(config, gui, "games-gui.previous-page", player, playerData, events -> browser.previous());
+        placeSectionItem(config, gui, "games-gui.next-page", player, playerData, events -> browser.next());
         placeSectionItem(config, gui, "games-gui.stats", player, playerData, null);
         placeSectionItem(config, gui, "games-gui.refresh", player, playerData, events -> {
             if (!refreshQueued.add(player.getUniqueId())) {
@@ -101,137 +96,293 @@ public class GamesGUI {
                         return;
                     }
 
-                    openInventory(player);
+                    browser.refresh();
                 } finally {
                     refreshQueued.remove(player.getUniqueId());
                 }
             }, 10L);
         });
 
-        GameManager gameManager = plugin.getGameManager();
-        if (gameManager.getCoinflipGames().isEmpty()) {
-            ConfigurationSection noGamesSection = config.getConfigurationSection("games-gui.no-games");
-            int noGamesSlot = config.getInt("games-gui.no-games.slot", -1);
-            if (noGamesSection != null && noGamesSlot >= 0) {
-                ItemStack noGamesItem = buildItemWithPlaceholders(noGamesSection, line -> applyPlayerStats(line, player, playerData));
-                gui.setItem(noGamesSlot, new GuiItem(noGamesItem));
+        if (config.getBoolean("games-gui.create-new-game.enabled")) {
+            int newGameSlot = config.getInt("games-gui.create-new-game.slot", -1);
+            ConfigurationSection createSection = config.getConfigurationSection("games-gui.create-new-game");
+            if (newGameSlot >= 0 && createSection != null) {
+                String initialProviderKey = economyManager.getEconomyProviders().keySet().stream().findFirst().orElse(null);
+                ItemStack newGameItem = buildItemWithPlaceholders(createSection, line -> applyPlayerStats(line, player, playerData));
+                GuiItem newGameGuiItem = getGuiItem(player, newGameItem, initialProviderKey);
+                gui.setItem(newGameSlot, newGameGuiItem);
             }
-        } else {
-            NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
-            Map<UUID, CoinflipGame> gamesSnapshot = new HashMap<>(gameManager.getCoinflipGames());
-            boolean taxEnabled = config.getBoolean("settings.tax.enabled");
-            double taxRate = config.getDouble("settings.tax.rate");
+        }
 
-            for (Map.Entry<UUID, CoinflipGame> entry : gamesSnapshot.entrySet()) {
-                CoinflipGame coinflipGame = entry.getValue();
-                EconomyProvider providerForGame = economyManager.getEconomyProvider(coinflipGame.getProvider());
-                if (providerForGame == null) {
-                    continue;
+        browser.placeControls();
+        // Listings go in whatever slots the fixed items above left empty.
+        browser.reserveEmptySlots();
+        browser.render();
+
+        plugin.getScheduler().runTaskAtEntity(player, () -> gui.open(player));
+
+        plugin.getScheduler().runTaskLaterAtEntity(player, () -> {
+            if (player.getOpenInventory().getTopInventory().equals(gui.getInventory())) {
+                gui.update();
+            }
+        }, 2L);
+    }
+
+    /**
+     * Shows the listings a page at a time, in the viewer's chosen order and currency.
+     * Each page walks the sorted listing index from where the previous page stopped,
+     * so only the listings on screen are read, however many are open.
+     */
+    private final class ListingBrowser {
+
+        private final Gui gui;
+        private final Player player;
+        private final PlayerData playerData;
+        private final FileConfiguration config;
+        private final @Nullable ItemStackBuilder materialBuilder;
+        private final List<Integer> slots = new ArrayList<>();
+        // The key each earlier page started after; null entries mean the first page.
+        private final List<ListingRegistry.Key> previousStarts = new ArrayList<>();
+
+        private ListingQuery query;
+        private @Nullable ListingRegistry.Key pageStart;
+        private @Nullable ListingRegistry.Key nextStart;
+        private boolean noGamesShown;
+
+        private ListingBrowser(Gui gui, Player player, PlayerData playerData, FileConfiguration config) {
+            this.gui = gui;
+            this.player = player;
+            this.playerData = playerData;
+            this.config = config;
+            this.query = ListingQuery.all(parseSort(config.getString("games-gui.sort.default")));
+
+            String materialName = config.getString("games-gui.coinflip-game.material", "PLAYER_HEAD");
+            Material material = "PLAYER_HEAD".equalsIgnoreCase(materialName) ? null : Material.matchMaterial(materialName);
+            this.materialBuilder = material != null ? new ItemStackBuilder(material) : null;
+        }
+
+        private void reserveEmptySlots() {
+            for (int slot = 0; slot < gui.getRows() * 9; slot++) {
+                if (gui.getGuiItem(slot) == null) {
+                    slots.add(slot);
                 }
+            }
+        }
+
+        private void placeControls() {
+            placeSectionItem(config, gui, "games-gui.sort", player, playerData,
+                    line -> line.replace("{SORT}", sortLabel(query.sort())),
+                    events -> setQuery(query.withSort(query.sort().next())));
+            placeSectionItem(config, gui, "games-gui.filter", player, playerData,
+                    line -> line.replace("{FILTER}", filterLabel(query.provider())),
+                    events -> setQuery(query.withProvider(nextProvider(query.provider()))));
+        }
+
+        private void setQuery(ListingQuery query) {
+            this.query = query;
+            this.pageStart = null;
+            this.previousStarts.clear();
+            placeControls();
+            refresh();
+        }
+
+        private void next() {
+            if (nextStart == null) {
+                return;
+            }
+
+            previousStarts.add(pageStart);
+            pageStart = nextStart;
+            refresh();
+        }
+
+        private void previous() {
+            if (previousStarts.isEmpty()) {
+                return;
+            }
 
-                long amount = coinflipGame.getAmount();
-                long taxed = taxEnabled ? (long) ((taxRate * amount) / 100.0) : 0L;
+            pageStart = previousStarts.remove(previousStarts.size() - 1);
+            refresh();
+        }
+
+        private void refresh() {
+            render();
+            gui.update();
+        }
 
-                String valueFormatted = numberFormat.format(amount);
-                String taxedFormatted = numberFormat.format(taxed);
+        private void render() {
+            NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
+            boolean taxEnabled = config.getBoolean("settings.tax.enabled");
+            double taxRate = config.getDouble("settings.tax.rate");
 
+            int shown = 0;
+            ListingRegistry.Key last = pageStart;
+            nextStart = null;
+            for (CoinflipGame coinflipGame : plugin.getGameManager().browseListings(query, pageStart)) {
+                EconomyProvider providerForGame = economyManager.getEconomyProvider(coinflipGame.getProvider());
                 Player creatorOnline = (coinflipGame.getOfflinePlayer() != null)
                         ? coinflipGame.getOfflinePlayer().getPlayer() : null;
 
-                if (creatorOnline == null) {
-                    continue;
+                if (providerForGame != null && creatorOnline != null) {
+                    // One more listing than fits means there is a next page, starting after the last one read.
+                    if (shown == slots.size()) {
+                        nextStart = last;
+                        break;
+                    }
+
+                    gui.setItem(slots.get(shown++), createListingItem(this, coinflipGame, providerForGame, creatorOnline,
+                            numberFormat, taxEnabled, taxRate));
                 }
 
-                ItemStackBuilder displayItemBuilder = (materialBuilder != null)
-                        ? new ItemStackBuilder(materialBuilder.build())
-                        : new ItemStackBuilder(coinflipGame.getCachedHead());
-
-                String nameTemplate = config.getString("games-gui.coinflip-game.display_name", "&e{PLAYER}'s Coinflip");
-                displayItemBuilder.withName(nameTemplate.replace("{PLAYER}", creatorOnline.getName()));
-
-                List<String> loreTemplate = config.getStringList("games-gui.coinflip-game.lore");
-                List<String> lore = new ArrayList<>(loreTemplate.size());
-                for (String line : loreTemplate) {
-                    lore.add(line
-                            .replace("{TAX_RATE}", String.valueOf(taxRate))
-                            .replace("{TAX_DEDUCTION}", taxedFormatted)
-                            .replace("{AMOUNT}", valueFormatted)
-                            .replace("{CURRENCY}", providerForGame.getDisplayName()));
+                last = ListingRegistry.Key.of(coinflipGame);
+            }
+
+            for (int i = shown; i < slots.size(); i++) {
+                gui.removeItem(slots.get(i));
+            }
+
+            int noGamesSlot = config.getInt("games-gui.no-games.slot", -1);
+            ConfigurationSection noGamesSection = config.getConfigurationSection("games-gui.no-games");
+            if (shown == 0 && pageStart == null && noGamesSection != null && noGamesSlot >= 0) {
+                ItemStack noGamesItem = buildItemWithPlaceholders(noGamesSection, line -> applyPlayerStats(line, player, playerData));
+                gui.setItem(noGamesSlot, new GuiItem(noGamesItem));
+                noGamesShown = true;
+            } else if (noGamesShown) {
+                if (!slots.contains(noGamesSlot)) {
+                    gui.removeItem(noGamesSlot);
                 }
+                noGamesShown = false;
+            }
+        }
 
-                ItemStack gameDisplayItem = displayItemBuilder.withLore(lore).build();
+        private String sortLabel(ListingSort sort) {
+            return config.getString("games-gui.sort.labels." + sort.name().toLowerCase(Locale.ROOT), sort.name());
+        }
 
-                GuiItem gameItem = new GuiItem(gameDisplayItem);
-                gameItem.setAction(events -> {
-                    if (!gameManager.getCoinflipGames().containsKey(creatorOnline.getUniqueId())) {
-                        Messages.ERROR_GAME_UNAVAILABLE.send(player);
-                        plugin.getScheduler().runTaskAtEntity(player, () -> openInventory(player));
-                        return;
-                    }
+        private String filterLabel(@Nullable String provider) {
+            if (provider == null) {
+                return config.getString("games-gui.filter.all", "All");
+            }
 
-                    if (player.getUniqueId().equals(creatorOnline.getUniqueId())) {
-                        Messages.ERROR_COINFLIP_SELF.send(player);
-                        plugin.getScheduler().runTaskAtEntity(player, () -> gui.close(player));
-                        return;
-                    }
+            EconomyProvider economyProvider = economyManager.getEconomyProvider(provider);
+            return economyProvider != null ? economyProvider.getDisplayName() : provider;
+        }
 
-                    CoinflipGame selectedGame = gameManager.getCoinflipGames().get(creatorOnline.getUniqueId());
-                    EconomyProvider selectedProvider = economyManager.getEconomyProvider(selectedGame.getProvider());
-                    if (selectedProvider == null) {
-                        Messages.INVALID_CURRENCY.send(player);
-                        return;
-                    }
+        private @Nullable String nextProvider(@Nullable String current) {
+            List<String> providers = new ArrayList<>(economyManager.getEconomyProviders().keySet());
+            int next = current == null ? 0 : providers.indexOf(current) + 1;
+            return next < providers.size() ? providers.get(next) : null;
+        }
+    }
 
-                    if (selectedProvider.getBalance(player) < selectedGame.getAmount()) {
-                        ItemStack previousItem = events.getCurrentItem();
+    private static ListingSort parseSort(@Nullable String name) {
+        if (name != null) {
+            try {
+                return ListingSort.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ignored) {
+                // Fall back to the default below.
+            }
+        }
 
-                        playConfiguredSound(player);
+        return ListingSort.AMOUNT_DESCENDING;
+    }
 
-                        ConfigurationSection noFundsSection = config.getConfigurationSection("games-gui.error-no-funds");
-                        if (noFundsSection != null && events.getClickedInventory() != null) {
-                            events.getClickedInventory().setItem(events.getSlot(), ItemStackBuilder.getItemStack(noFundsSection).build());
-                            plugin.getScheduler().runTaskLater(() -> {
-                                if (events.getClickedInventory() != null) {
-                                    events.getClickedInventory().setItem(events.getSlot(), previousItem);
-                                }
-                            }, 45L);
-                        }
+    private GuiItem createListingItem(ListingBrowser browser, CoinflipGame coinflipGame, EconomyProvider providerForGame,
+                                      Player creatorOnline, NumberFormat numberFormat, boolean taxEnabled, double taxRate) {
+        FileConfiguration config = browser.config;
+        Player player = browser.player;
+        GameManager gameManager = plugin.getGameManager();
 
-                        Messages.INSUFFICIENT_FUNDS.send(player);
-                        return;
-                    }
+        long amount = coinflipGame.getAmount();
+        long taxed = taxEnabled ? (long) ((taxRate * amount) / 100.0) : 0L;
 
-                    selectedProvider.withdraw(player, selectedGame.getAmount());
-                    gameManager.removeCoinflipGame(creatorOnline.getUniqueId());
+        String valueFormatted = numberFormat.format(amount);
+        String taxedFormatted = numberFormat.format(taxed);
 
-                    plugin.getScheduler().runTaskAtEntity(player, () -> {
-                        events.getWhoClicked().closeInventory();
-                        plugin.getInventoryManager().getCoinflipGUI().startGame(creatorOnline, player, selectedGame);
-                    });
-                });
+        ItemStackBuilder displayItemBuilder = (browser.materialBuilder != null)
+                ? new ItemStackBuilder(browser.materialBuilder.build())
+                : new ItemStackBuilder(coinflipGame.getCachedHead());
 
-                gui.addItem(gameItem);
-            }
+        String nameTemplate = config.getString("games-gui.coinflip-game.display_name", "&e{PLAYER}'s Coinflip");
+        displayItemBuilder.withName(nameTemplate.replace("{PLAYER}", creatorOnline.getName()));
+
+        List<String> loreTemplate = config.getStringList("games-gui.coinflip-game.lore");
+        List<String> lore = new ArrayList<>(loreTemplate.size());
+        for (String line : loreTemplate) {
+            lore.add(line
+                    .replace("{TAX_RATE}", String.valueOf(taxRate))
+                    .replace("{TAX_DEDUCTION}", taxedFormatted)
+                    .replace("{AMOUNT}", valueFormatted)
+                    .replace("{CURRENCY}", providerForGame.getDisplayName()));
         }
 
-        if (plugin.getConfigHandler(ConfigType.CONFIG).getConfig().getBoolean("games-gui.create-new-game.enabled")) {
-            int newGameSlot = plugin.getConfigHandler(ConfigType.CONFIG).getConfig().getInt("games-gui.create-new-game.slot", -1);
-            ConfigurationSection createSection = plugin.getConfigHandler(ConfigType.CONFIG).getConfig().getConfigurationSection("games-gui.create-new-game");
-            if (newGameSlot >= 0 && createSection != null) {
-                String initialProviderKey = economyManager.getEconomyProviders().keySet().stream().findFirst().orElse(null);
-                ItemStack newGameItem = buildItemWithPlaceholders(createSection, line -> applyPlayerStats(line, player, playerData));
-                GuiItem newGameGuiItem = getGuiItem(player, newGameItem, initialProviderKey);
-                gui.setItem(newGameSlot, newGameGuiItem);
+        ItemStack gameDisplayItem = displayItemBuilder.withLore(lore).build();
+
+        GuiItem gameItem = new GuiItem(gameDisplayItem);
+        gameItem.setAction(events -> {
+            CoinflipGame selectedGame = gameManager.getCoinflipGame(coinflipGame.getGameId());
+            if (selectedGame == null) {
+                Messages.ERROR_GAME_UNAVAILABLE.send(player);
+                plugin.getScheduler().runTaskAtEntity(player, browser::refresh);
+                return;
+            }
+            if (player.getUniqueId().equals(creatorOnline.getUniqueId())) {
+                Messages.ERROR_COINFLIP_SELF.send(player);
+                plugin.getScheduler().runTaskAtEntity(player, () -> browser.gui.close(player));
+                return;
             }
-        }
 
-        plugin.getScheduler().runTaskAtEntity(player, () -> gui.open(player));
+            EconomyProvider selectedProvider = economyManager.getEconomyProvider(selectedGame.getProvider());
+            if (selectedProvider == null) {
+                Messages.INVALID_CURRENCY.send(player);
+                return;
+            }
 
-        plugin.getScheduler().runTaskLaterAtEntity(player, () -> {
-            if (player.getOpenInventory().getTopInventory().equals(gui.getInventory())) {
-                gui.update();
+            if (selectedProvider.getBalance(player) < selectedGame.getAmount()) {
+                ItemStack previousItem = events.getCurrentItem();
+
+                playConfiguredSound(player);
+
+                ConfigurationSection noFundsSection = config.getConfigurationSection("games-gui.error-no-funds");
+                if (noFundsSection != null && events.getClickedInventory() != null) {
+                    events.getClickedInventory().setItem(events.getSlot(), ItemStackBuilder.getItemStack(noFundsSection).build());
+                    plugin.getScheduler().runTaskLater(() -> {
+                        if (events.getClickedInventory() != null) {
+                            events.getClickedInventory().setItem(events.getSlot(), previousItem);
+                        }
+                    }, 45L);
+                }
+
+                Messages.INSUFFICIENT_FUNDS.send(player);
+                return;
             }
-        }, 2L);
+
+            // Only one of several players clicking the same listing gets past here.
+            CoinflipGame claimedGame = gameManager.tryClaim(coinflipGame.getGameId(), player.getUniqueId());
+            if (claimedGame == null) {
+                Messages.ERROR_GAME_UNAVAILABLE.send(player);
+                plugin.getScheduler().runTaskAtEntity(player, browser::refresh);
+                return;
+            }
+
+            // The balance may have been spent since it was checked above.
+            if (selectedProvider.getBalance(player) < claimedGame.getAmount()) {
+                gameManager.releaseClaim(claimedGame);
+                Messages.INSUFFICIENT_FUNDS.send(player);
+                return;
+            }
+
+            selectedProvider.withdraw(player, claimedGame.getAmount());
+            plugin.getStorageManager().getEscrowJournal().recordJoined(claimedGame.getGameId(), player.getUniqueId());
+            gameManager.removeCoinflipGame(claimedGame.getGameId());
+
+            plugin.getScheduler().runTaskAtEntity(player, () -> {
+                events.getWhoClicked().closeInventory();
+                plugin.getInventoryManager().getCoinflipGUI().startGame(creatorOnline, player, claimedGame);
+            });
+        });
+
+        return gameItem;
     }
 
     private @NotNull GuiItem getGuiItem(Player player, ItemStack newGameItem, String initialProviderKey) {
@@ -250,7 +401,7 @@ public class GamesGUI {
         return newGameGuiItem;
     }
 
-    private void loadFillerItems(FileConfiguration config, PaginatedGui gui, Player player, PlayerData data) {
+    private void loadFillerItems(FileConfiguration config, Gui gui, Player player, PlayerData data) {
         ConfigurationSection fillerSection = config.getConfigurationSection("games-gui.filler-items");
         if (fillerSection == null) {
             plugin.getLogger().log(Level.SEVERE, "Could not find the filler items section in the configuration file!");
@@ -286,8 +437,14 @@ public class GamesGUI {
         }
     }
 
-    private void placeSectionItem(FileConfiguration config, PaginatedGui gui, String path, Player player,
+    private void placeSectionItem(FileConfiguration config, Gui gui, String path, Player player,
                                   PlayerData data, GuiAction<InventoryClickEvent> clickAction) {
+        placeSectionItem(config, gui, path, player, data, UnaryOperator.identity(), clickAction);
+    }
+
+    private void placeSectionItem(FileConfiguration config, Gui gui, String path, Player player,
+                                  PlayerData data, UnaryOperator<String> extraReplacement,
+                                  GuiAction<InventoryClickEvent> clickAction) {
 
         ConfigurationSection section = config.getConfigurationSection(path);
         if (section == null) {
@@ -303,7 +460,7 @@ public class GamesGUI {
             return;
         }
 
-        ItemStack item = buildItemWithPlaceholders(section, line -> applyPlayerStats(line, player, data));
+        ItemStack item = buildItemWithPlaceholders(section, line -> extraReplacement.apply(applyPlayerStats(line, player, data)));
         GuiItem guiItem = new GuiItem(item);
         if (clickAction != null) {
             guiItem.setAction(clickAction);
@@ -0,0 +1,146 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import me.nahu.scheduler.wrapper.task.WrappedTask;
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.storage.handler.impl.SQLiteHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes consistent snapshots of the SQLite database while the server runs and
+ * keeps only the most recent ones.
+ *
+ * <p>Copying {@code database.db} by hand can capture a half-written page or miss
+ * changes still in the WAL. Snapshots are made with {@code VACUUM INTO} on a
+ * storage reader thread and a connection of their own, so they never hold up
+ * saves or the game thread.</p>
+ */
+public class BackupService {
+
+    private static final String FILE_PREFIX = "database-";
+    private static final String FILE_SUFFIX = ".db";
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final SQLiteHandler handler;
+    private final StorageExecutor executor;
+    private final File directory;
+    private final int keep;
+    private final long intervalTicks;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private WrappedTask backupTask;
+
+    public BackupService(DeluxeCoinflipPlugin plugin, SQLiteHandler handler, StorageExecutor executor,
+                         File directory, int keep, long intervalTicks) {
+        this.plugin = plugin;
+        this.handler = handler;
+        this.executor = executor;
+        this.directory = directory;
+        this.keep = Math.max(1, keep);
+        this.intervalTicks = intervalTicks;
+    }
+
+    public void start() {
+        if (intervalTicks > 0L) {
+            backupTask = plugin.getScheduler().runTaskTimerAsynchronously(this::backup, intervalTicks, intervalTicks);
+        }
+    }
+
+    public void shutdown() {
+        if (backupTask != null) {
+            backupTask.cancel();
+            backupTask = null;
+        }
+    }
+
+    /**
+     * Starts a snapshot unless one is already running.
+     *
+     * @return a future completed with the result, or failed with an {@link IllegalStateException}
+     * if another snapshot is still running
+     */
+    public CompletableFuture<Result> backup() {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("A backup is already running"));
+        }
+
+        return executor.read(null, this::createBackup).whenComplete((result, error) -> running.set(false));
+    }
+
+    private Result createBackup() throws IOException, SQLException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create backup folder: " + directory.getAbsolutePath());
+        }
+
+        final File target = new File(directory, FILE_PREFIX + FILE_DATE_FORMAT.format(Instant.now()) + FILE_SUFFIX);
+        final long start = System.nanoTime();
+        handler.backup(target);
+        final long durationMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        final Result result = new Result(target, target.length(), durationMillis, prune());
+        plugin.getLogger().info("Backed up the database to " + target.getName() + " (" + result.formattedSize() + ") in "
+                + durationMillis + " ms" + (result.removed() > 0 ? ", removed " + result.removed() + " old backups." : "."));
+        return result;
+    }
+
+    private int prune() {
+        final File[] backups = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (backups == null || backups.length <= keep) {
+            return 0;
+        }
+
+        // The timestamp in the name sorts oldest first.
+        Arrays.sort(backups, Comparator.comparing(File::getName));
+        int removed = 0;
+        for (int i = 0; i < backups.length - keep; i++) {
+            if (backups[i].delete()) {
+                removed++;
+            } else {
+                plugin.getLogger().warning("Could not delete old backup " + backups[i].getName());
+            }
+        }
+
+        return removed;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The outcome of one snapshot.
+     *
+     * @param file           the snapshot file
+     * @param sizeBytes      the snapshot size
+     * @param durationMillis how long the snapshot took
+     * @param removed        how many old snapshots were deleted to stay within the retention limit
+     */
+    public record Result(File file, long sizeBytes, long durationMillis, int removed) {
+
+        public String formattedSize() {
+            if (sizeBytes < 1024L) {
+                return sizeBytes + " B";
+            }
+
+            return sizeBytes < 1024L * 1024L
+                    ? String.format(Locale.US, "%.1f KiB", sizeBytes / 1024.0)
+                    : String.format(Locale.US, "%.1f MiB", sizeBytes / (1024.0 * 1024.0));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.config.Messages;
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Copies players, open listings and escrow entries from one storage backend to another
+ * while the server keeps running.
+ *
+ * <p>Players are read in UUID order, one fixed-size page at a time, and written
+ * back as one batch per page, so memory use does not grow with the table. After
+ * each page the last copied UUID is written to a checkpoint file; a migration
+ * between the same two backends that was interrupted picks up after it. Writes
+ * replace existing rows, so repeating the last page after a crash is harmless.</p>
+ *
+ * <p>When copying out of the backend the server is using, players keep playing
+ * while their pages are copied. Every player written to after the migration
+ * started is remembered and copied again once the pages are done, and again when
+ * the server stops. Listings and escrow entries are only copied when the server
+ * stops, after shutdown has refunded or kept them, so the target never holds a
+ * listing that was joined or cancelled in the meantime. The target is only
+ * complete after a clean shutdown; if the server stops any other way, run the
+ * migration again before switching {@code storage.type}. A live migration
+ * resumed after a restart starts over, because changes made before the restart
+ * were not tracked.</p>
+ *
+ * <p>Listings and escrow entries are not paged. They are held in memory in one go,
+ * which with several listings per player can be more than there are players online.</p>
+ */
+public class DataMigrator {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000L;
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final File checkpointFile;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Set<UUID> changedPlayers = ConcurrentHashMap.newKeySet();
+    private volatile boolean tracking;
+    private volatile @Nullable String liveTarget;
+
+    public DataMigrator(DeluxeCoinflipPlugin plugin) {
+        this.plugin = plugin;
+        this.checkpointFile = new File(plugin.getDataFolder(), "migration-checkpoint.yml");
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Notes that a player's stored stats changed, so a migration out of the live
+     * backend copies them again. Does nothing unless such a migration was started.
+     */
+    public void recordChanged(UUID uuid) {
+        if (tracking) {
+            changedPlayers.add(uuid);
+        }
+    }
+
+    /**
+     * Starts a migration on an async thread. Progress and the outcome are reported to {@code sender}.
+     *
+     * @param from   the storage type to copy from
+     * @param to     the storage type to copy into
+     * @param sender who started the migration
+     * @return {@code false} if a migration is already running
+     */
+    public boolean start(String from, String to, CommandSender sender) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        plugin.getScheduler().runTaskAsynchronously(() -> {
+            try {
+                migrate(from.toUpperCase(Locale.ROOT), to.toUpperCase(Locale.ROOT), sender);
+            } catch (Exception ex) {
+                plugin.getLogger().log(Level.SEVERE, "Error occurred while migrating storage from " + from + " to " + to + ".", ex);
+                Messages.ADMIN_MIGRATE_FAILED.send(sender, "{ERROR}", ex.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Brings the target of a migration out of the live backend up to date. Called while
+     * storage shuts down, after the last player saves and listing refunds were written
+     * and before the live handler is closed.
+     */
+    public void finishLiveMigration() {
+        tracking = false;
+        if (running.get()) {
+            plugin.getLogger().warning("The server stopped during a storage migration; run it again before switching storage.type.");
+            return;
+        }
+
+        final String to = liveTarget;
+        liveTarget = null;
+        if (to == null) {
+            return;
+        }
+
+        final StorageHandler target = open(to);
+        if (target == null) {
+            plugin.getLogger().severe("Could not connect to " + to + " storage to finish the migration; run it again before switching storage.type.");
+            return;
+        }
+
+        try {
+            final int players = copyChangedPlayers(plugin.getStorageManager().getStorageHandler(), target);
+            final int listings = copyListings(plugin.getStorageManager().getStorageHandler(), target);
+            plugin.getLogger().info("Copied " + players + " changed players and " + listings + " listings to " + to
+                    + " storage. It is ready to be used as storage.type.");
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while finishing the storage migration to " + to
+                    + "; run it again before switching storage.type.", ex);
+        } finally {
+            close(target, to);
+        }
+    }
+
+    private void migrate(String from, String to, CommandSender sender) throws IOException {
+        final StorageManager storageManager = plugin.getStorageManager();
+        final StorageHandler source = open(from);
+        if (source == null) {
+            Messages.ADMIN_MIGRATE_CONNECT_FAILED.send(sender, "{TYPE}", from);
+            return;
+        }
+
+        final StorageHandler target = open(to);
+        if (target == null) {
+            close(source, from);
+            Messages.ADMIN_MIGRATE_CONNECT_FAILED.send(sender, "{TYPE}", to);
+            return;
+        }
+
+        try {
+            final boolean live = storageManager.isActiveType(from);
+            final YamlConfiguration checkpoint = loadCheckpoint(from, to, live && !tracking);
+            final String lastUuid = checkpoint.getString("last-uuid");
+            UUID cursor = lastUuid != null ? UUID.fromString(lastUuid) : null;
+            long copied = checkpoint.getLong("players-copied", 0L);
+            if (cursor != null) {
+                Messages.ADMIN_MIGRATE_RESUMING.send(sender, "{FROM}", from, "{TO}", to, "{PLAYERS}", copied);
+            }
+
+            if (live) {
+                // From here on every stat write is remembered, so pages copied before it are copied again.
+                if (cursor == null) {
+                    changedPlayers.clear();
+                }
+                tracking = true;
+
+                // The live server keeps saving to the active backend, so flush what it has queued first.
+                storageManager.autosave().join();
+            }
+
+            final long total = source.countPlayers();
+            final long start = System.currentTimeMillis();
+            long lastReport = start;
+            while (true) {
+                final List<PlayerData> page = source.getPlayersAfter(cursor, CHUNK_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                if (!target.savePlayers(page)) {
+                    throw new IOException("Could not write a batch of " + page.size() + " players to " + to);
+                }
+
+                cursor = page.get(page.size() - 1).getUUID();
+                copied += page.size();
+                checkpoint.set("last-uuid", cursor.toString());
+                checkpoint.set("players-copied", copied);
+                checkpoint.save(checkpointFile);
+
+                if (System.currentTimeMillis() - lastReport >= PROGRESS_INTERVAL_MILLIS) {
+                    lastReport = System.currentTimeMillis();
+                    Messages.ADMIN_MIGRATE_PROGRESS.send(sender, "{PLAYERS}", copied, "{TOTAL}", total >= 0 ? total : "?");
+                }
+            }
+
+            if (checkpointFile.exists() && !checkpointFile.delete()) {
+                plugin.getLogger().warning("Could not delete " + checkpointFile.getName() + ", delete it before starting another migration.");
+            }
+
+            if (live) {
+                copyChangedPlayers(source, target);
+                liveTarget = to;
+                Messages.ADMIN_MIGRATE_COMPLETED_LIVE.send(sender,
+                        "{PLAYERS}", copied,
+                        "{FROM}", from,
+                        "{TO}", to,
+                        "{SECONDS}", (System.currentTimeMillis() - start) / 1000L);
+                return;
+            }
+
+            final int listings = copyListings(source, target);
+            Messages.ADMIN_MIGRATE_COMPLETED.send(sender,
+                    "{PLAYERS}", copied,
+                    "{LISTINGS}", listings,
+                    "{FROM}", from,
+                    "{TO}", to,
+                    "{SECONDS}", (System.currentTimeMillis() - start) / 1000L);
+        } finally {
+            close(source, from);
+            close(target, to);
+        }
+    }
+
+    /**
+     * Copies the players written to since the migration started again, with their current stats.
+     *
+     * @return the number of players copied
+     */
+    private int copyChangedPlayers(StorageHandler source, StorageHandler target) throws IOException {
+        final List<UUID> changed = new ArrayList<>(changedPlayers);
+        for (int from = 0; from < changed.size(); from += CHUNK_SIZE) {
+            final List<UUID> chunk = changed.subList(from, Math.min(changed.size(), from + CHUNK_SIZE));
+            // Removed before reading, so a write racing the read marks the player again.
+            chunk.forEach(changedPlayers::remove);
+            if (!target.savePlayers(source.getPlayers(chunk).values())) {
+                chunk.forEach(changedPlayers::add);
+                throw new IOException("Could not write a batch of " + chunk.size() + " changed players");
+            }
+        }
+        return changed.size();
+    }
+
+    /**
+     * Makes the target's listings and escrow entries match the source's exactly. Entries
+     * only the target has are deleted first, so a listing that is gone from the source can
+     * never be restored from the target, nor refunded a second time.
+     *
+     * @return the number of listings copied
+     */
+    private int copyListings(StorageHandler source, StorageHandler target) {
+        final Map<UUID, CoinflipGame> games = new HashMap<>();
+        source.forEachGame(game -> games.put(game.getGameId(), game));
+        final Map<UUID, EscrowEntry> escrows = new HashMap<>();
+        source.getEscrows().forEach(entry -> escrows.put(entry.gameId(), entry));
+
+        final List<UUID> staleGames = new ArrayList<>();
+        target.forEachGame(game -> {
+            if (!games.containsKey(game.getGameId())) {
+                staleGames.add(game.getGameId());
+            }
+        });
+        target.deleteCoinflips(staleGames);
+        for (EscrowEntry entry : target.getEscrows()) {
+            if (!escrows.containsKey(entry.gameId())) {
+                target.deleteEscrow(entry.gameId());
+            }
+        }
+
+        escrows.values().forEach(target::saveEscrow);
+        games.values().forEach(target::saveCoinflip);
+        return games.size();
+    }
+
+    private YamlConfiguration loadCheckpoint(String from, String to, boolean discard) {
+        final YamlConfiguration checkpoint = checkpointFile.exists() ? YamlConfiguration.loadConfiguration(checkpointFile) : new YamlConfiguration();
+        if (discard || !from.equals(checkpoint.getString("from")) || !to.equals(checkpoint.getString("to"))) {
+            // A checkpoint for a different pair of backends, or from before a restart of a live migration, does not apply here.
+            checkpoint.set("last-uuid", null);
+            checkpoint.set("players-copied", 0L);
+        }
+
+        checkpoint.set("from", from);
+        checkpoint.set("to", to);
+        return checkpoint;
+    }
+
+    /**
+     * Reuses the live handler for the active backend; anything else gets a connection of its own.
+     */
+    private @Nullable StorageHandler open(String type) {
+        final StorageManager storageManager = plugin.getStorageManager();
+        if (storageManager.isActiveType(type)) {
+            return storageManager.getStorageHandler();
+        }
+
+        final StorageHandler handler = StorageManager.createHandler(type);
+        return handler.onEnable(plugin) ? handler : null;
+    }
+
+    private void close(StorageHandler handler, String type) {
+        if (!plugin.getStorageManager().isActiveType(type)) {
+            handler.onDisable();
+        }
+    }
+}
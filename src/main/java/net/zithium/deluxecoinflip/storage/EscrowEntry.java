@@ -0,0 +1,59 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * The journaled state of one wager whose money is held by the plugin.
+ *
+ * @param gameId    the id of the listing; identifies the wager
+ * @param creator   the player who created the listing
+ * @param provider  the economy provider identifier the wager was placed with
+ * @param amount    the amount each player put in
+ * @param stage     how far the wager got
+ * @param opponent  the player who joined, once {@link Stage#JOINED}
+ * @param winner    the player to pay, once {@link Stage#SETTLED}
+ * @param payout    the amount owed to the winner, once {@link Stage#SETTLED}
+ * @param updatedAt when the entry last changed, in epoch milliseconds
+ */
+public record EscrowEntry(UUID gameId, UUID creator, String provider, long amount, Stage stage,
+                          @Nullable UUID opponent, @Nullable UUID winner, long payout, long updatedAt) {
+
+    public enum Stage {
+        /**
+         * The creator's stake is about to be withdrawn. Written before the withdraw, so
+         * an entry left in this stage belongs to a withdraw that was never confirmed.
+         */
+        PENDING,
+        /**
+         * The creator's stake has been withdrawn and the listing is open.
+         */
+        WITHDRAWN,
+        /**
+         * An opponent's stake has been withdrawn as well and the flip is running.
+         */
+        JOINED,
+        /**
+         * The winner is known but may not have been paid yet.
+         */
+        SETTLED
+    }
+
+    public EscrowEntry withdrawn() {
+        return new EscrowEntry(gameId, creator, provider, amount, Stage.WITHDRAWN, null, null, 0L, System.currentTimeMillis());
+    }
+
+    public EscrowEntry joined(UUID opponent) {
+        return new EscrowEntry(gameId, creator, provider, amount, Stage.JOINED, opponent, null, 0L, System.currentTimeMillis());
+    }
+
+    public EscrowEntry settled(UUID winner, long payout) {
+        return new EscrowEntry(gameId, creator, provider, amount, Stage.SETTLED, opponent, winner, payout, System.currentTimeMillis());
+    }
+}
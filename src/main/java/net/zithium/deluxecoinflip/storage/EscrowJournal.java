@@ -0,0 +1,232 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.economy.provider.EconomyProvider;
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+
+/**
+ * Durable record of every wager whose money the plugin is holding.
+ *
+ * <p>Each wager moves through {@link EscrowEntry.Stage#PENDING PENDING},
+ * {@link EscrowEntry.Stage#WITHDRAWN WITHDRAWN}, {@link EscrowEntry.Stage#JOINED JOINED}
+ * and {@link EscrowEntry.Stage#SETTLED SETTLED}, and its entry is cleared once the
+ * money has been paid back out. Writes go through the storage writer keyed by the
+ * game id, so a later stage can never be overwritten by an earlier one.</p>
+ *
+ * <p>A creator's stake only leaves them after the {@code PENDING} entry covering
+ * it is in storage; the withdraw is chained onto that write rather than waiting
+ * for it, so no server thread ever blocks on storage. The {@code WITHDRAWN} and
+ * {@code JOINED} entries are queued right after their withdraws, so a crash can
+ * only lose track of a stake while that one write is in flight.</p>
+ *
+ * <p>On startup any entry still in the journal belongs to a wager the server
+ * never finished, and {@link #recover()} refunds or completes it. A
+ * {@code PENDING} entry is dropped without a refund, since its withdraw may never
+ * have happened; it is logged so the player's balance can be checked. Otherwise
+ * recovery errs towards paying: a crash between a payout and the write that clears
+ * its entry pays that wager again on the next start.</p>
+ */
+public class EscrowJournal {
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final StorageHandler storageHandler;
+    private final StorageExecutor executor;
+    private final Map<UUID, EscrowEntry> entries = new ConcurrentHashMap<>();
+
+    public EscrowJournal(DeluxeCoinflipPlugin plugin, StorageHandler storageHandler, StorageExecutor executor) {
+        this.plugin = plugin;
+        this.storageHandler = storageHandler;
+        this.executor = executor;
+    }
+
+    /**
+     * Withdraws the creator's stake for a new listing once its {@code PENDING} entry is
+     * in storage. Returns straight away; the withdraw runs on the creator's thread after
+     * the write, and the returned future is completed there, so the caller can add the
+     * listing from it. The {@code WITHDRAWN} entry is written after the withdraw without
+     * waiting for it.
+     *
+     * @param game     the new listing
+     * @param provider the economy provider to withdraw from
+     * @param creator  the player creating the listing
+     * @param allowed  checked again on the creator's thread right before the withdraw, such as the listing limit
+     * @return a future completed with {@code true} if the stake was withdrawn; {@code false} if the journal could
+     * not be written, the creator left, could no longer pay or was no longer allowed, in which case nothing was
+     * withdrawn and the listing must not be added
+     */
+    public CompletableFuture<Boolean> withdrawStake(CoinflipGame game, EconomyProvider provider, Player creator, BooleanSupplier allowed) {
+        final UUID gameId = game.getGameId();
+        final EscrowEntry pending = new EscrowEntry(gameId, game.getPlayerUUID(), game.getProvider(), game.getAmount(),
+                EscrowEntry.Stage.PENDING, null, null, 0L, System.currentTimeMillis());
+        entries.put(gameId, pending);
+
+        // Completed on the creator's thread. If they leave first the task is dropped, and the
+        // PENDING entry, which covers no money, is removed by the next recovery.
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        executor.write(gameId, () -> storageHandler.saveEscrow(pending)).whenComplete((stored, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error occurred while writing an escrow entry.", error);
+            }
+
+            final boolean journaled = error == null && Boolean.TRUE.equals(stored);
+            plugin.getScheduler().runTaskAtEntity(creator, () -> {
+                if (!journaled || !creator.isOnline() || provider.getBalance(creator) < game.getAmount() || !allowed.getAsBoolean()) {
+                    clear(gameId);
+                    result.complete(false);
+                    return;
+                }
+
+                try {
+                    provider.withdraw(creator, game.getAmount());
+                } catch (RuntimeException ex) {
+                    plugin.getLogger().log(Level.SEVERE, "Error occurred while withdrawing the stake of coinflip " + gameId + ".", ex);
+                    clear(gameId);
+                    result.complete(false);
+                    return;
+                }
+
+                save(pending.withdrawn());
+                result.complete(true);
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Records that an opponent's stake has been withdrawn to join a listing.
+     */
+    public void recordJoined(UUID gameId, UUID opponent) {
+        final EscrowEntry entry = entries.get(gameId);
+        if (entry == null) {
+            plugin.getLogger().warning("No escrow entry found for coinflip " + gameId + " when it was joined.");
+            return;
+        }
+
+        save(entry.joined(opponent));
+    }
+
+    /**
+     * Records the winner of a wager before they are paid.
+     */
+    public void recordSettled(UUID gameId, UUID winner, long payout) {
+        final EscrowEntry entry = entries.get(gameId);
+        if (entry == null) {
+            plugin.getLogger().warning("No escrow entry found for coinflip " + gameId + " when it was settled.");
+            return;
+        }
+
+        save(entry.settled(winner, payout));
+    }
+
+    /**
+     * Clears a wager whose money has been paid back out, by settlement or refund.
+     */
+    public void clear(UUID gameId) {
+        if (entries.remove(gameId) == null) {
+            return;
+        }
+
+        executor.write(gameId, () -> storageHandler.deleteEscrow(gameId));
+    }
+
+    /**
+     * Refunds or completes every wager left in the journal by an unclean shutdown.
+     * Must be called during enable, after stored listings have been restored and before
+     * players can place new wagers. Wagers of restored listings are kept. The journal
+     * is read straight away and paid out on the first server tick, after the economy
+     * providers have been enabled.
+     */
+    public void recover() {
+        final List<EscrowEntry> orphaned = new ArrayList<>();
+        for (EscrowEntry entry : storageHandler.getEscrows()) {
+            if (entry.stage() == EscrowEntry.Stage.PENDING) {
+                // The listing is only added after its stake is confirmed, so there is nothing to remove.
+                plugin.getLogger().warning("Dropped the unconfirmed coinflip wager of " + entry.creator() + " ("
+                        + entry.amount() + " " + entry.provider() + "); the server stopped while its stake was being "
+                        + "withdrawn, so check whether the player was charged.");
+                executor.write(entry.gameId(), () -> storageHandler.deleteEscrow(entry.gameId()));
+                continue;
+            }
+
+            // A listing restored from storage still holds its stake; keep tracking it instead of refunding.
+            if (entry.stage() == EscrowEntry.Stage.WITHDRAWN && plugin.getGameManager().getCoinflipGame(entry.gameId()) != null) {
+                entries.put(entry.gameId(), entry);
+            } else {
+                // A listing whose wager was already joined or settled must not be offered again.
+                plugin.getGameManager().getListings().remove(entry.gameId());
+                orphaned.add(entry);
+            }
+        }
+
+        // Listings stored before the escrow journal existed were still paid for.
+        for (CoinflipGame game : plugin.getGameManager().getListings().snapshot().games()) {
+            if (!entries.containsKey(game.getGameId())) {
+                save(new EscrowEntry(game.getGameId(), game.getPlayerUUID(), game.getProvider(), game.getAmount(),
+                        EscrowEntry.Stage.WITHDRAWN, null, null, 0L, System.currentTimeMillis()));
+            }
+        }
+
+        if (orphaned.isEmpty()) {
+            return;
+        }
+
+        plugin.getScheduler().runTask(() -> {
+            plugin.getLogger().warning("Recovering " + orphaned.size() + " coinflip wager(s) left unfinished by the last shutdown.");
+            for (EscrowEntry entry : orphaned) {
+                final EconomyProvider provider = plugin.getEconomyManager().getEconomyProvider(entry.provider());
+                if (provider == null) {
+                    plugin.getLogger().warning("Missing economy provider '" + entry.provider() + "'; the wager of "
+                            + entry.creator() + " will be recovered once it is available.");
+                    continue;
+                }
+
+                switch (entry.stage()) {
+                    case PENDING -> {
+                        // Dropped before the orphans are collected.
+                    }
+                    case WITHDRAWN -> provider.deposit(Bukkit.getOfflinePlayer(entry.creator()), entry.amount());
+                    case JOINED -> {
+                        provider.deposit(Bukkit.getOfflinePlayer(entry.creator()), entry.amount());
+                        if (entry.opponent() != null) {
+                            provider.deposit(Bukkit.getOfflinePlayer(entry.opponent()), entry.amount());
+                        }
+                    }
+                    case SETTLED -> {
+                        if (entry.winner() != null) {
+                            provider.deposit(Bukkit.getOfflinePlayer(entry.winner()), entry.payout());
+                        }
+                    }
+                }
+
+                plugin.getLogger().info("Recovered " + entry.stage().name().toLowerCase() + " coinflip wager of "
+                        + entry.creator() + " (" + entry.amount() + " " + entry.provider() + ").");
+                executor.write(entry.gameId(), () -> {
+                    storageHandler.deleteCoinflip(entry.gameId());
+                    storageHandler.deleteEscrow(entry.gameId());
+                });
+            }
+        });
+    }
+
+    private void save(EscrowEntry entry) {
+        entries.put(entry.gameId(), entry);
+        executor.write(entry.gameId(), () -> storageHandler.saveEscrow(entry));
+    }
+}
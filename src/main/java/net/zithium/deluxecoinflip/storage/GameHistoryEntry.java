@@ -0,0 +1,34 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import java.util.UUID;
+
+/**
+ * One settled game in the history ledger.
+ *
+ * @param id        the ledger id, increasing with every game; {@code 0} before it is stored
+ * @param winner    the winning player
+ * @param loser     the losing player
+ * @param provider  the economy provider identifier the game was played with
+ * @param amount    the amount each player wagered
+ * @param tax       the tax taken from the winnings
+ * @param timestamp when the game settled, in epoch milliseconds
+ */
+public record GameHistoryEntry(long id, UUID winner, UUID loser, String provider,
+                               long amount, long tax, long timestamp) {
+
+    public GameHistoryEntry(UUID winner, UUID loser, String provider, long amount, long tax) {
+        this(0L, winner, loser, provider, amount, tax, System.currentTimeMillis());
+    }
+
+    /**
+     * Gets whether the given player took part in this game.
+     */
+    public boolean involves(UUID uuid) {
+        return winner.equals(uuid) || loser.equals(uuid);
+    }
+}
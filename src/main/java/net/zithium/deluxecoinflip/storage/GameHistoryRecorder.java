@@ -0,0 +1,103 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import me.nahu.scheduler.wrapper.task.WrappedTask;
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Buffers settled games and appends them to the history ledger in batches,
+ * so settlement never waits on a database write.
+ */
+public class GameHistoryRecorder {
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final StorageHandler storageHandler;
+    private final StorageExecutor executor;
+    private final long flushIntervalTicks;
+
+    private final Queue<GameHistoryEntry> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private WrappedTask flushTask;
+
+    public GameHistoryRecorder(DeluxeCoinflipPlugin plugin, StorageHandler storageHandler, StorageExecutor executor,
+                               long flushIntervalTicks) {
+        this.plugin = plugin;
+        this.storageHandler = storageHandler;
+        this.executor = executor;
+        this.flushIntervalTicks = Math.max(1L, flushIntervalTicks);
+    }
+
+    public void start() {
+        flushTask = plugin.getScheduler().runTaskTimerAsynchronously(() -> executor.write(null, this::flush), flushIntervalTicks, flushIntervalTicks);
+    }
+
+    /**
+     * Stops the periodic flush and writes everything still pending on the calling thread.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+    }
+
+    /**
+     * Queues a settled game to be written with the next batch.
+     *
+     * @param entry the game to record
+     */
+    public void record(GameHistoryEntry entry) {
+        pending.add(entry);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending entry in one batch on the calling thread.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            final List<GameHistoryEntry> batch = new ArrayList<>();
+            GameHistoryEntry entry;
+            while ((entry = pending.poll()) != null) {
+                batch.add(entry);
+            }
+
+            boolean written;
+            try {
+                written = storageHandler.saveGameHistory(batch);
+            } catch (Exception ex) {
+                plugin.getLogger().log(Level.SEVERE, "Unexpected error while writing game history.", ex);
+                written = false;
+            }
+
+            if (!written) {
+                plugin.getLogger().warning("Failed to write " + batch.size() + " game history entries, they will be retried.");
+                pending.addAll(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+/**
+ * A lifetime stat that players are ranked by.
+ */
+public enum LeaderboardStat {
+
+    WINS("wins", "wins", PlayerData::getWins),
+    PROFIT("profit", "profit", PlayerData::getProfit),
+    TOTAL_GAMBLED("total_gambled", "total_gambled", PlayerData::getTotalGambled);
+
+    private final String placeholderName;
+    private final String column;
+    private final ToLongFunction<PlayerData> value;
+
+    LeaderboardStat(String placeholderName, String column, ToLongFunction<PlayerData> value) {
+        this.placeholderName = placeholderName;
+        this.column = column;
+        this.value = value;
+    }
+
+    /**
+     * Gets the name used for this stat in placeholders, e.g. {@code total_gambled}.
+     */
+    public String placeholderName() {
+        return placeholderName;
+    }
+
+    /**
+     * Gets the {@code players} column holding this stat.
+     */
+    public String column() {
+        return column;
+    }
+
+    /**
+     * Gets this stat from a player's data.
+     */
+    public long valueOf(PlayerData data) {
+        return value.applyAsLong(data);
+    }
+
+    /**
+     * Finds a stat by its placeholder name.
+     *
+     * @param placeholderName e.g. {@code profit}
+     * @return the stat, or {@code null} if there is none by that name
+     */
+    public static LeaderboardStat fromPlaceholderName(String placeholderName) {
+        final String name = placeholderName.toLowerCase(Locale.ROOT);
+        for (LeaderboardStat stat : values()) {
+            if (stat.placeholderName.equals(name)) {
+                return stat;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * A player's stats within one calendar period.
+ *
+ * @param period       the kind of period
+ * @param periodStart  the epoch milliseconds the period started at
+ * @param wins         games won in the period
+ * @param losses       games lost in the period
+ * @param profit       amount won in the period
+ * @param totalLosses  amount lost in the period
+ * @param totalGambled amount wagered in the period
+ */
+public record PeriodStats(StatPeriod period, long periodStart, int wins, int losses,
+                          long profit, long totalLosses, long totalGambled) {
+
+    /**
+     * Gets the stats of a period without any games.
+     */
+    public static PeriodStats empty(StatPeriod period, long periodStart) {
+        return new PeriodStats(period, periodStart, 0, 0, 0L, 0L, 0L);
+    }
+
+    public int totalGames() {
+        return wins + losses;
+    }
+
+    public String profitFormatted() {
+        return NumberFormat.getNumberInstance(Locale.US).format(profit);
+    }
+
+    public String totalLossesFormatted() {
+        return NumberFormat.getNumberInstance(Locale.US).format(totalLosses);
+    }
+
+    public String totalGambledFormatted() {
+        return NumberFormat.getNumberInstance(Locale.US).format(totalGambled);
+    }
+}
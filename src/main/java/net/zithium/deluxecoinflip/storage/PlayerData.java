@@ -10,12 +10,25 @@ import java.text.NumberFormat;
 import java.util.Locale;
 import java.util.UUID;
 
+/**
+ * A player's coinflip stats.
+ *
+ * <p>Every change is also recorded as an unsaved delta, which storage drains
+ * with {@link #drainDelta()} so that only changed players, and only their
+ * changed counters, are written.</p>
+ */
 public class PlayerData {
 
     private final UUID uuid;
-    private int wins, losses;
-    private long profit, totalLosses, totalGambled;
-    private boolean displayBroadcastMessages;
+    private volatile int wins, losses;
+    private volatile long profit, totalLosses, totalGambled;
+    private volatile boolean displayBroadcastMessages;
+
+    // Unsaved changes since the last drainDelta()
+    private int dirtyFields;
+    private int winsDelta, lossesDelta;
+    private long profitDelta, totalLossesDelta, totalGambledDelta;
+    private long changedAt;
 
     public PlayerData(UUID uuid, int wins, int losses, long profit, long totalLosses, long totalGambled, boolean displayBroadcastMessages) {
         this.uuid = uuid;
@@ -39,15 +52,21 @@ public class PlayerData {
         return uuid;
     }
 
-    public void setLosses(int losses) {
+    public synchronized void setLosses(int losses) {
+        lossesDelta += losses - this.losses;
+        markDirty(PlayerDelta.LOSSES);
         this.losses = losses;
     }
 
-    public void setWins(int wins) {
+    public synchronized void setWins(int wins) {
+        winsDelta += wins - this.wins;
+        markDirty(PlayerDelta.WINS);
         this.wins = wins;
     }
 
-    public void setProfit(long profit) {
+    public synchronized void setProfit(long profit) {
+        profitDelta += profit - this.profit;
+        markDirty(PlayerDelta.PROFIT);
         this.profit = profit;
     }
 
@@ -67,11 +86,15 @@ public class PlayerData {
         return profit;
     }
 
-    public void setTotalLosses(long totalLosses) {
+    public synchronized void setTotalLosses(long totalLosses) {
+        totalLossesDelta += totalLosses - this.totalLosses;
+        markDirty(PlayerDelta.TOTAL_LOSSES);
         this.totalLosses = totalLosses;
     }
 
-    public void setTotalGambled(long totalGambled) {
+    public synchronized void setTotalGambled(long totalGambled) {
+        totalGambledDelta += totalGambled - this.totalGambled;
+        markDirty(PlayerDelta.TOTAL_GAMBLED);
         this.totalGambled = totalGambled;
     }
 
@@ -95,24 +118,34 @@ public class PlayerData {
         return NumberFormat.getNumberInstance(Locale.US).format(totalGambled);
     }
 
-    public void updateWins() {
+    public synchronized void updateWins() {
         wins++;
+        winsDelta++;
+        markDirty(PlayerDelta.WINS);
     }
 
-    public void updateLosses() {
+    public synchronized void updateLosses() {
         losses++;
+        lossesDelta++;
+        markDirty(PlayerDelta.LOSSES);
     }
 
-    public void updateProfit(long profit) {
+    public synchronized void updateProfit(long profit) {
         this.profit += profit;
+        profitDelta += profit;
+        markDirty(PlayerDelta.PROFIT);
     }
 
-    public void updateLosses(long losses) {
+    public synchronized void updateLosses(long losses) {
         this.totalLosses += losses;
+        totalLossesDelta += losses;
+        markDirty(PlayerDelta.TOTAL_LOSSES);
     }
 
-    public void updateGambled(long gambled) {
+    public synchronized void updateGambled(long gambled) {
         this.totalGambled += gambled;
+        totalGambledDelta += gambled;
+        markDirty(PlayerDelta.TOTAL_GAMBLED);
     }
 
     public double getWinPercentage() {
@@ -127,7 +160,64 @@ public class PlayerData {
         return displayBroadcastMessages;
     }
 
-    public void setDisplayBroadcastMessages(boolean value) {
+    public synchronized void setDisplayBroadcastMessages(boolean value) {
+        if (this.displayBroadcastMessages != value) {
+            markDirty(PlayerDelta.BROADCASTS);
+        }
+
         this.displayBroadcastMessages = value;
     }
+
+    /**
+     * @return {@code true} if this player has changes that have not been saved
+     */
+    public synchronized boolean isDirty() {
+        return dirtyFields != 0;
+    }
+
+    /**
+     * Takes the unsaved changes and marks this player as clean.
+     *
+     * @return the changes since the last drain, or {@code null} if there are none
+     */
+    public synchronized PlayerDelta drainDelta() {
+        if (dirtyFields == 0) {
+            return null;
+        }
+
+        final PlayerDelta delta = new PlayerDelta(uuid, dirtyFields, winsDelta, lossesDelta,
+                profitDelta, totalLossesDelta, totalGambledDelta, displayBroadcastMessages, changedAt);
+
+        dirtyFields = 0;
+        winsDelta = 0;
+        lossesDelta = 0;
+        profitDelta = 0L;
+        totalLossesDelta = 0L;
+        totalGambledDelta = 0L;
+        return delta;
+    }
+
+    /**
+     * Puts back changes taken by {@link #drainDelta()} that could not be written,
+     * merging them with anything that changed in the meantime.
+     *
+     * @param delta the changes to restore
+     */
+    public synchronized void restoreDelta(PlayerDelta delta) {
+        changedAt = dirtyFields == 0 ? delta.changedAt() : Math.min(changedAt, delta.changedAt());
+        dirtyFields |= delta.dirtyFields();
+        winsDelta += delta.wins();
+        lossesDelta += delta.losses();
+        profitDelta += delta.profit();
+        totalLossesDelta += delta.totalLosses();
+        totalGambledDelta += delta.totalGambled();
+    }
+
+    private void markDirty(int field) {
+        if (dirtyFields == 0) {
+            changedAt = System.currentTimeMillis();
+        }
+
+        dirtyFields |= field;
+    }
 }
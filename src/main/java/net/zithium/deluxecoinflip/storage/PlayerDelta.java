@@ -0,0 +1,46 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import java.util.UUID;
+
+/**
+ * The unsaved changes to a player's stats since their last write.
+ *
+ * <p>Counters are increments to add to the stored values, not absolute values.
+ * The broadcast setting is absolute and only applied when
+ * {@link #isDirty(int) isDirty(BROADCASTS)} is set. Rollups count the
+ * counters towards the periods containing {@code changedAt}, so a delta written
+ * late, or retried after a failed write, still lands where it was played.</p>
+ *
+ * @param uuid                     the player's UUID
+ * @param dirtyFields              bitmask of the fields that changed
+ * @param wins                     wins to add
+ * @param losses                   losses to add
+ * @param profit                   profit to add
+ * @param totalLosses              lost amount to add
+ * @param totalGambled             gambled amount to add
+ * @param displayBroadcastMessages the current broadcast setting
+ * @param changedAt                epoch milliseconds of the first of these changes
+ */
+public record PlayerDelta(UUID uuid, int dirtyFields, int wins, int losses, long profit,
+                          long totalLosses, long totalGambled, boolean displayBroadcastMessages, long changedAt) {
+
+    public static final int WINS = 1;
+    public static final int LOSSES = 1 << 1;
+    public static final int PROFIT = 1 << 2;
+    public static final int TOTAL_LOSSES = 1 << 3;
+    public static final int TOTAL_GAMBLED = 1 << 4;
+    public static final int BROADCASTS = 1 << 5;
+
+    public boolean isDirty(int field) {
+        return (dirtyFields & field) != 0;
+    }
+
+    public boolean isEmpty() {
+        return dirtyFields == 0;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Groups player loads that arrive close together into one query.
+ *
+ * <p>The first load in a window schedules a flush {@code windowTicks} later;
+ * every load requested until then is answered by the same
+ * {@link WriteBehindQueue#loadAll} call. After a restart, a whole wave of
+ * reconnecting players is read with a handful of {@code WHERE uuid IN (...)}
+ * queries instead of one query each.</p>
+ */
+public class PlayerLoadBatcher {
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final StorageExecutor executor;
+    private final WriteBehindQueue writeQueue;
+    private final long windowTicks;
+
+    private final Object lock = new Object();
+    private Map<UUID, CompletableFuture<PlayerData>> waiting = new HashMap<>();
+
+    public PlayerLoadBatcher(DeluxeCoinflipPlugin plugin, StorageExecutor executor, WriteBehindQueue writeQueue, long windowTicks) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.writeQueue = writeQueue;
+        this.windowTicks = Math.max(0L, windowTicks);
+    }
+
+    /**
+     * Queues a player to be loaded with the current batch.
+     *
+     * @param uuid the player's UUID
+     * @return a future completed with the player's data once the batch has been read
+     */
+    public CompletableFuture<PlayerData> load(UUID uuid) {
+        // Nothing can be scheduled while disabling, and a zero window means no batching.
+        if (windowTicks == 0L || !plugin.isEnabled()) {
+            return executor.read(uuid, () -> writeQueue.load(uuid));
+        }
+
+        final CompletableFuture<PlayerData> future;
+        final boolean first;
+        synchronized (lock) {
+            final CompletableFuture<PlayerData> existing = waiting.get(uuid);
+            if (existing != null) {
+                return existing;
+            }
+
+            first = waiting.isEmpty();
+            future = new CompletableFuture<>();
+            waiting.put(uuid, future);
+        }
+
+        if (first) {
+            plugin.getScheduler().runTaskLaterAsynchronously(this::flush, windowTicks);
+        }
+
+        return future;
+    }
+
+    /**
+     * Loads everything waiting in the current window now. Called on shutdown so no load is left waiting.
+     */
+    public void flush() {
+        final Map<UUID, CompletableFuture<PlayerData>> batch;
+        synchronized (lock) {
+            if (waiting.isEmpty()) {
+                return;
+            }
+
+            batch = waiting;
+            waiting = new HashMap<>();
+        }
+
+        executor.readAll(batch.keySet(), () -> writeQueue.loadAll(batch.keySet())).whenComplete((players, error) ->
+                batch.forEach((uuid, future) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(players.getOrDefault(uuid, new PlayerData(uuid)));
+                    }
+                }));
+    }
+}
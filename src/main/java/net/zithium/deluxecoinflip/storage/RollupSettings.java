@@ -0,0 +1,67 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * How per-period stat rollups are kept, read from {@code storage.rollups}.
+ *
+ * @param enabled   whether stat changes are also added to the period rollups
+ * @param zone      the time zone days, weeks and months start in
+ * @param weekStart the first day of a week
+ */
+public record RollupSettings(boolean enabled, ZoneId zone, DayOfWeek weekStart) {
+
+    public static RollupSettings defaults() {
+        return new RollupSettings(true, ZoneId.systemDefault(), DayOfWeek.MONDAY);
+    }
+
+    public static RollupSettings fromConfig(@Nullable ConfigurationSection section, Logger logger) {
+        final RollupSettings defaults = defaults();
+        if (section == null) {
+            return defaults;
+        }
+
+        ZoneId zone = defaults.zone();
+        final String zoneName = section.getString("timezone", "");
+        if (!zoneName.isEmpty()) {
+            try {
+                zone = ZoneId.of(zoneName);
+            } catch (DateTimeException ex) {
+                logger.warning("Unknown rollup time zone '" + zoneName + "', using " + zone.getId() + " instead.");
+            }
+        }
+
+        DayOfWeek weekStart = defaults.weekStart();
+        final String weekStartName = section.getString("week-start", weekStart.name());
+        try {
+            weekStart = DayOfWeek.valueOf(weekStartName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            logger.warning("Unknown rollup week start '" + weekStartName + "', using " + weekStart.name() + " instead.");
+        }
+
+        return new RollupSettings(section.getBoolean("enabled", defaults.enabled()), zone, weekStart);
+    }
+
+    /**
+     * Gets the start of the period containing a point in time.
+     *
+     * @param period      the kind of period
+     * @param epochMillis the point in time
+     * @return the epoch milliseconds the period started at
+     */
+    public long periodStart(StatPeriod period, long epochMillis) {
+        return period.start(epochMillis, zone, weekStart);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * A calendar period that player stats are rolled up by.
+ */
+public enum StatPeriod {
+
+    DAY("daily"),
+    WEEK("weekly"),
+    MONTH("monthly");
+
+    private final String placeholderName;
+
+    StatPeriod(String placeholderName) {
+        this.placeholderName = placeholderName;
+    }
+
+    /**
+     * Gets the prefix used for this period in placeholders, e.g. {@code weekly}.
+     */
+    public String placeholderName() {
+        return placeholderName;
+    }
+
+    /**
+     * Gets the start of the period containing a point in time.
+     *
+     * @param epochMillis the point in time
+     * @param zone        the time zone periods start in
+     * @param weekStart   the first day of a week
+     * @return the epoch milliseconds of midnight on the first day of the period
+     */
+    public long start(long epochMillis, ZoneId zone, DayOfWeek weekStart) {
+        final LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        final LocalDate first = switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(weekStart));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+
+        return first.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Finds a period by its placeholder name.
+     *
+     * @param placeholderName e.g. {@code daily}
+     * @return the period, or {@code null} if there is none by that name
+     */
+    public static StatPeriod fromPlaceholderName(String placeholderName) {
+        final String name = placeholderName.toLowerCase(Locale.ROOT);
+        for (StatPeriod period : values()) {
+            if (period.placeholderName.equals(name)) {
+                return period;
+            }
+        }
+
+        return null;
+    }
+}
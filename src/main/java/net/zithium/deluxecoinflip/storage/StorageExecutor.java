@@ -0,0 +1,455 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs every storage call off the server threads, away from other plugins' async tasks.
+ *
+ * <p>Writes run one at a time, in submission order, on a single writer thread.
+ * Reads run on a small reader pool, or on virtual threads when the server runs
+ * on Java 21 or newer. Tasks submitted with a player UUID run strictly after
+ * the previous task for that UUID has finished, whichever pool it ran on, so a
+ * save can never overtake a load. Batch reads wait on every player they cover.</p>
+ *
+ * <p>At most {@code queue-capacity} tasks may be waiting or running at once.
+ * Beyond that the configured {@link BackpressurePolicy} applies, except on server
+ * threads: they never wait for room nor run storage work themselves, so unless
+ * the policy is {@link BackpressurePolicy#ABORT ABORT} their tasks are queued past
+ * the capacity instead.</p>
+ */
+public class StorageExecutor {
+
+    public enum BackpressurePolicy {
+        /**
+         * The submitting thread waits until there is room in the queue.
+         */
+        BLOCK,
+        /**
+         * The submitting thread runs the task itself, once earlier tasks for the same player are done.
+         */
+        CALLER_RUNS,
+        /**
+         * The task is rejected and its future fails with a {@link RejectedExecutionException}.
+         */
+        ABORT
+    }
+
+    private static final ThreadLocal<Boolean> STORAGE_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final Logger logger;
+    private final int capacity;
+    private final BackpressurePolicy policy;
+    private final BooleanSupplier serverThread;
+    private final ExecutorService writer;
+    private final ExecutorService readers;
+    private final boolean virtualReaders;
+    private final Semaphore permits;
+    private final Map<UUID, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    // Held while a task registers as the tail of its keys, so two multi-key tasks cannot each wait on the other.
+    private final Object tailLock = new Object();
+    private final AtomicInteger overCapacity = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param serverThread whether the calling thread is a server thread, which must never wait for the queue
+     */
+    public StorageExecutor(Logger logger, int capacity, BackpressurePolicy policy, int readerThreads,
+                           boolean useVirtualThreads, BooleanSupplier serverThread) {
+        this.logger = logger;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.serverThread = serverThread;
+        this.permits = new Semaphore(this.capacity);
+        this.writer = Executors.newSingleThreadExecutor(threadFactory("DeluxeCoinflip Storage Writer"));
+
+        final ExecutorService virtual = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualReaders = virtual != null;
+        this.readers = virtual != null ? virtual
+                : Executors.newFixedThreadPool(Math.max(1, readerThreads), threadFactory("DeluxeCoinflip Storage Reader"));
+    }
+
+    public static StorageExecutor fromConfig(Logger logger, @Nullable ConfigurationSection section) {
+        if (section == null) {
+            return new StorageExecutor(logger, 10000, BackpressurePolicy.CALLER_RUNS, 2, true, Bukkit::isPrimaryThread);
+        }
+
+        BackpressurePolicy policy;
+        try {
+            policy = BackpressurePolicy.valueOf(section.getString("backpressure", "CALLER_RUNS").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            logger.warning("Unknown storage backpressure policy '" + section.getString("backpressure") + "', using CALLER_RUNS.");
+            policy = BackpressurePolicy.CALLER_RUNS;
+        }
+
+        return new StorageExecutor(logger,
+                section.getInt("queue-capacity", 10000),
+                policy,
+                section.getInt("reader-threads", 2),
+                section.getBoolean("virtual-thread-readers", true),
+                Bukkit::isPrimaryThread);
+    }
+
+    /**
+     * Queues a write on the single writer thread.
+     *
+     * @param key the player the write belongs to, or {@code null} if it only needs to keep write order
+     * @param task the write
+     * @return a future completed once the write has run
+     */
+    public CompletableFuture<Void> write(@Nullable UUID key, Runnable task) {
+        return submit(keys(key), writer, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues a write that produces a result on the single writer thread.
+     *
+     * @param key the player the write belongs to, or {@code null} if it only needs to keep write order
+     * @param task the write
+     * @return a future completed with the result of the write
+     */
+    public <T> CompletableFuture<T> write(@Nullable UUID key, Callable<T> task) {
+        return submit(keys(key), writer, task);
+    }
+
+    /**
+     * Queues a write that covers several keys on the single writer thread. It runs
+     * once earlier tasks for all of them are done, and later tasks for any of them wait for it.
+     *
+     * @param keys the keys the write belongs to
+     * @param task the write
+     * @return a future completed once the write has run
+     */
+    public CompletableFuture<Void> writeAll(Collection<UUID> keys, Runnable task) {
+        return submit(Set.copyOf(keys), writer, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues a read on the reader pool.
+     *
+     * @param key the player the read belongs to, or {@code null} if it may run in any order
+     * @param task the read
+     * @return a future completed with the result of the read
+     */
+    public <T> CompletableFuture<T> read(@Nullable UUID key, Callable<T> task) {
+        return submit(keys(key), readers, task);
+    }
+
+    /**
+     * Queues a read that covers several players. It runs once earlier tasks for
+     * all of them are done, and later tasks for any of them wait for it.
+     *
+     * @param keys the players the read belongs to
+     * @param task the read
+     * @return a future completed with the result of the read
+     */
+    public <T> CompletableFuture<T> readAll(Collection<UUID> keys, Callable<T> task) {
+        return submit(Set.copyOf(keys), readers, task);
+    }
+
+    private <T> CompletableFuture<T> submit(Collection<UUID> keys, ExecutorService pool, Callable<T> task) {
+        submitted.increment();
+
+        // A storage task queueing more work must never wait on its own queue.
+        if (STORAGE_THREAD.get()) {
+            return callNow(task);
+        }
+
+        if (shutdown) {
+            return runInline(keys, task);
+        }
+
+        final boolean permitted = acquire();
+        if (!permitted) {
+            if (policy == BackpressurePolicy.ABORT) {
+                rejected.increment();
+                logger.warning("Dropped a storage task because the storage queue is full (" + capacity + " tasks).");
+                return CompletableFuture.failedFuture(new RejectedExecutionException("The storage queue is full (" + capacity + " tasks)"));
+            }
+
+            if (!serverThread.getAsBoolean()) {
+                callerRuns.increment();
+                return runInline(keys, task);
+            }
+
+            // A server thread may neither wait for room nor run storage I/O itself.
+            overflowed.increment();
+            overCapacity.incrementAndGet();
+        }
+
+        maxDepth.accumulateAndGet(depth(), Math::max);
+        final long queuedAt = System.nanoTime();
+
+        if (keys.isEmpty()) {
+            return dispatch(pool, task, queuedAt, permitted);
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // allOf waits for every predecessor even if one fails, and a failure does not stop this task.
+        CompletableFuture.allOf(link(keys, result)).whenComplete((ignored, error) -> dispatch(pool, task, queuedAt, permitted).whenComplete((value, failure) -> {
+            unlink(keys, result);
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Makes a task the tail of each of its keys.
+     *
+     * @return the tasks it must wait for
+     */
+    private CompletableFuture<?>[] link(Collection<UUID> keys, CompletableFuture<?> task) {
+        synchronized (tailLock) {
+            return keys.stream()
+                    .map(key -> tails.put(key, task))
+                    .filter(Objects::nonNull)
+                    .toArray(CompletableFuture[]::new);
+        }
+    }
+
+    private void unlink(Collection<UUID> keys, CompletableFuture<?> task) {
+        keys.forEach(key -> tails.remove(key, task));
+    }
+
+    private int depth() {
+        return capacity - permits.availablePermits() + overCapacity.get();
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+
+        // Waiting for room would stall the server thread for as long as the queue takes to drain.
+        if (policy != BackpressurePolicy.BLOCK || serverThread.getAsBoolean()) {
+            return false;
+        }
+
+        try {
+            permits.acquire();
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> CompletableFuture<T> dispatch(ExecutorService pool, Callable<T> task, long queuedAt, boolean permitted) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                try {
+                    future.complete(call(task));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                } finally {
+                    release(permitted);
+                    recordLatency(System.nanoTime() - queuedAt);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // The pool shut down while the task waited on its predecessor.
+            release(permitted);
+            try {
+                future.complete(call(task));
+            } catch (Throwable failure) {
+                future.completeExceptionally(failure);
+            }
+        }
+        return future;
+    }
+
+    private void release(boolean permitted) {
+        if (permitted) {
+            permits.release();
+        } else {
+            overCapacity.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs a task on the calling thread, which is never a server thread outside of shutdown.
+     * It is registered as the tail of its keys like a queued task, so it runs after earlier
+     * tasks for them and later ones wait for it.
+     */
+    private <T> CompletableFuture<T> runInline(Collection<UUID> keys, Callable<T> task) {
+        if (keys.isEmpty()) {
+            return callNow(task);
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture.allOf(link(keys, result)).handle((ignored, error) -> null).join();
+        try {
+            result.complete(call(task));
+        } catch (Throwable ex) {
+            result.completeExceptionally(ex);
+        } finally {
+            unlink(keys, result);
+        }
+        return result;
+    }
+
+    private <T> CompletableFuture<T> callNow(Callable<T> task) {
+        try {
+            return CompletableFuture.completedFuture(call(task));
+        } catch (Throwable ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private <T> T call(Callable<T> task) throws Exception {
+        final boolean nested = STORAGE_THREAD.get();
+        STORAGE_THREAD.set(true);
+        try {
+            final T value = task.call();
+            completed.increment();
+            return value;
+        } catch (Exception ex) {
+            failed.increment();
+            logger.log(Level.SEVERE, "Error occurred while running a storage task.", ex);
+            throw ex;
+        } finally {
+            STORAGE_THREAD.set(nested);
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Stops accepting queued work and waits for everything already queued to finish,
+     * including keyed tasks still waiting on an earlier task for the same key.
+     * Tasks submitted afterwards run on the submitting thread.
+     */
+    public void shutdown() {
+        shutdown = true;
+        try {
+            // Chained tasks only reach a pool once their predecessor is done, so the pools must stay open until then.
+            if (!awaitChains(TimeUnit.SECONDS.toNanos(30))) {
+                logger.warning("Timed out waiting for queued storage tasks to finish.");
+            }
+
+            writer.shutdown();
+            readers.shutdown();
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS) || !readers.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for queued storage tasks to finish.");
+            }
+        } catch (InterruptedException ex) {
+            writer.shutdown();
+            readers.shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitChains(long timeoutNanos) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        while (!tails.isEmpty()) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0L) {
+                return false;
+            }
+
+            try {
+                CompletableFuture.allOf(tails.values().toArray(CompletableFuture[]::new)).get(remaining, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException ignored) {
+                // Failed tasks are logged where they run; allOf still waited for the rest.
+            } catch (TimeoutException ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Stats getStats() {
+        final long done = completed.sum() + failed.sum();
+        return new Stats(depth(), maxDepth.get(), capacity, policy,
+                virtualReaders, submitted.sum(), completed.sum(), failed.sum(), rejected.sum(), callerRuns.sum(), overflowed.sum(),
+                done == 0 ? 0.0 : totalLatencyNanos.sum() / (double) done / 1_000_000.0,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * A point-in-time view of the executor's counters. Latencies cover queue wait plus run time.
+     * {@code overflowed} counts tasks from server threads queued past the capacity.
+     */
+    public record Stats(int depth, int maxDepth, int capacity, BackpressurePolicy policy, boolean virtualReaders,
+                        long submitted, long completed, long failed, long rejected, long callerRuns, long overflowed,
+                        double averageLatencyMillis, double maxLatencyMillis) {
+    }
+
+    private static Collection<UUID> keys(@Nullable UUID key) {
+        return key == null ? List.of() : List.of(key);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + " #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static @Nullable ExecutorService newVirtualThreadExecutor() {
+        // Looked up reflectively so the plugin still builds and runs on Java 17.
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+}
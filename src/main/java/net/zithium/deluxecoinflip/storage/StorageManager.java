@@ -5,106 +5,390 @@
 
 package net.zithium.deluxecoinflip.storage;
 
+import me.nahu.scheduler.wrapper.task.WrappedTask;
 import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.cache.OfflinePlayerCache;
+import net.zithium.deluxecoinflip.cache.PeriodStatsCache;
 import net.zithium.deluxecoinflip.exception.InvalidStorageHandlerException;
+import net.zithium.deluxecoinflip.leaderboard.LeaderboardManager;
+import net.zithium.deluxecoinflip.storage.handler.AsyncStorageHandler;
+import net.zithium.deluxecoinflip.storage.handler.AsyncStorageHandlerAdapter;
 import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import net.zithium.deluxecoinflip.storage.handler.impl.MySQLHandler;
+import net.zithium.deluxecoinflip.storage.handler.impl.RecordLogHandler;
 import net.zithium.deluxecoinflip.storage.handler.impl.SQLiteHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class StorageManager implements Listener {
 
+    private static final long PRELOAD_TIMEOUT_SECONDS = 5L;
+
     private final DeluxeCoinflipPlugin plugin;
     private final Map<UUID, PlayerData> playerDataMap;
     private StorageHandler storageHandler;
+    private StorageExecutor executor;
+    private AsyncStorageHandler asyncStorageHandler;
+    private WriteBehindQueue writeQueue;
+    private PlayerLoadBatcher loadBatcher;
+    private OfflinePlayerCache offlineCache;
+    private PeriodStatsCache periodCache;
+    private LeaderboardManager leaderboards;
+    private GameHistoryRecorder historyRecorder;
+    private EscrowJournal escrowJournal;
+    private WrappedTask autosaveTask;
+    private BackupService backupService;
+    private final DataMigrator dataMigrator;
 
     public StorageManager(DeluxeCoinflipPlugin plugin) {
         this.plugin = plugin;
         this.playerDataMap = new ConcurrentHashMap<>();
+        this.dataMigrator = new DataMigrator(plugin);
     }
 
     public void onEnable() {
-        final String configuredType = plugin.getConfig().getString("storage.type");
-        if ("SQLITE".equalsIgnoreCase(configuredType)) {
-            storageHandler = new SQLiteHandler();
-        } else {
-            throw new InvalidStorageHandlerException("Invalid storage handler specified: " + configuredType);
-        }
+        storageHandler = createHandler(plugin.getConfig().getString("storage.type"));
 
         if (!storageHandler.onEnable(plugin)) {
             plugin.getServer().getPluginManager().disablePlugin(plugin);
             return;
         }
 
+        executor = StorageExecutor.fromConfig(plugin.getLogger(), plugin.getConfig().getConfigurationSection("storage.executor"));
+        asyncStorageHandler = new AsyncStorageHandlerAdapter(storageHandler, executor);
+
+        writeQueue = new WriteBehindQueue(plugin, storageHandler, executor,
+                plugin.getConfig().getInt("storage.write-behind.batch-size", 100),
+                plugin.getConfig().getLong("storage.write-behind.flush-interval", 5L) * 20L);
+        writeQueue.start();
+
+        loadBatcher = new PlayerLoadBatcher(plugin, executor, writeQueue, plugin.getConfig().getLong("storage.load-batch-window", 2L));
+        offlineCache = OfflinePlayerCache.fromConfig(plugin.getConfig().getConfigurationSection("storage.offline-cache"), loadBatcher::load);
+
+        // Sized for everyone online plus the offline players placeholders are shown for.
+        final RollupSettings rollupSettings = RollupSettings.fromConfig(plugin.getConfig().getConfigurationSection("storage.rollups"), plugin.getLogger());
+        periodCache = new PeriodStatsCache(
+                plugin.getConfig().getLong("storage.offline-cache.maximum-size", 1000L) + Bukkit.getMaxPlayers(),
+                plugin.getConfig().getLong("storage.offline-cache.expire-after-access", 600L),
+                rollupSettings, uuid -> loadPeriodStats(uuid, rollupSettings));
+        writeQueue.setWriteListener(deltas -> deltas.forEach(delta -> {
+            periodCache.refresh(delta.uuid());
+            dataMigrator.recordChanged(delta.uuid());
+        }));
+
+        leaderboards = new LeaderboardManager(plugin, storageHandler, executor, plugin.getConfig().getInt("settings.leaderboard.size", 10));
+
+        historyRecorder = new GameHistoryRecorder(plugin, storageHandler, executor,
+                plugin.getConfig().getLong("storage.write-behind.flush-interval", 5L) * 20L);
+        historyRecorder.start();
+
+        escrowJournal = new EscrowJournal(plugin, storageHandler, executor);
+
+        if (storageHandler instanceof SQLiteHandler sqliteHandler) {
+            backupService = new BackupService(plugin, sqliteHandler, executor,
+                    new File(plugin.getDataFolder(), plugin.getConfig().getString("storage.backup.folder", "backups")),
+                    plugin.getConfig().getInt("storage.backup.keep", 10),
+                    plugin.getConfig().getLong("storage.backup.interval", 360L) * 60L * 20L);
+            backupService.start();
+        }
+
+        final long autosaveTicks = plugin.getConfig().getLong("storage.autosave.interval", 300L) * 20L;
+        if (autosaveTicks > 0L) {
+            autosaveTask = plugin.getScheduler().runTaskTimerAsynchronously(this::autosave, autosaveTicks, autosaveTicks);
+        }
+
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
 
+        // Requested in the same tick, so the load batcher reads everyone online in one go.
         Bukkit.getOnlinePlayers().forEach(player -> loadPlayerData(player.getUniqueId()));
+        leaderboards.seedAll();
+    }
+
+    /**
+     * Creates an unopened handler for a storage type as written in {@code storage.type}.
+     *
+     * @param type the storage type
+     * @return the new handler
+     * @throws InvalidStorageHandlerException if the type is unknown
+     */
+    public static StorageHandler createHandler(String type) {
+        if ("SQLITE".equalsIgnoreCase(type)) {
+            return new SQLiteHandler();
+        } else if ("MYSQL".equalsIgnoreCase(type) || "MARIADB".equalsIgnoreCase(type)) {
+            return new MySQLHandler();
+        } else if ("RECORDLOG".equalsIgnoreCase(type)) {
+            return new RecordLogHandler();
+        }
+
+        throw new InvalidStorageHandlerException("Invalid storage handler specified: " + type);
+    }
+
+    /**
+     * Whether a storage type names the backend this server is currently using.
+     *
+     * @param type the storage type
+     */
+    public boolean isActiveType(String type) {
+        return createHandler(type).getClass() == storageHandler.getClass();
     }
 
     public void onDisable(boolean shutdown) {
         if (shutdown && storageHandler != null) {
+            if (autosaveTask != null) {
+                autosaveTask.cancel();
+                autosaveTask = null;
+            }
+
+            if (backupService != null) {
+                backupService.shutdown();
+            }
+
+            if (loadBatcher != null) {
+                loadBatcher.flush();
+            }
+
+            // Let queued tasks finish first; anything submitted from here on runs on this thread.
+            if (executor != null) {
+                executor.shutdown();
+            }
+
+            if (writeQueue != null) {
+                plugin.getLogger().info("Saving player data to database...");
+                playerDataMap.values().forEach(writeQueue::enqueue);
+                writeQueue.shutdown();
+            }
+
+            if (historyRecorder != null) {
+                historyRecorder.shutdown();
+            }
+
+            // Everything has been written to the live backend now, so a migration out of it can catch up.
+            dataMigrator.finishLiveMigration();
+
+            playerDataMap.clear();
+            if (offlineCache != null) {
+                offlineCache.clear();
+            }
+            if (periodCache != null) {
+                periodCache.clear();
+            }
             storageHandler.onDisable();
         }
     }
 
+    /**
+     * Writes the unsaved changes of every online player in one batch. Players
+     * without changes are skipped, so this costs nothing when no games were played.
+     *
+     * @return a future completed with the number of players written
+     */
+    public CompletableFuture<Integer> autosave() {
+        final int online = playerDataMap.size();
+        playerDataMap.values().forEach(writeQueue::enqueue);
+
+        return executor.write(null, () -> {
+            final long start = System.nanoTime();
+            final int written = writeQueue.flush();
+            if (written > 0 && plugin.getConfig().getBoolean("storage.autosave.log", true)) {
+                plugin.getLogger().info("Autosaved " + written + " of " + online + " online players in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+            }
+
+            return written;
+        });
+    }
+
     public Optional<PlayerData> getPlayer(UUID uuid) {
         return Optional.ofNullable(playerDataMap.get(uuid));
     }
 
     public void updateOfflinePlayerWin(UUID uuid, long profit, long beforeTax) {
-        plugin.getScheduler().runTaskAsynchronously(() -> {
-            PlayerData playerData = storageHandler.getPlayer(uuid);
-            playerData.updateWins();
-            playerData.updateProfit(profit);
-            playerData.updateGambled(beforeTax);
-            storageHandler.savePlayer(playerData);
-        });
+        offlineCache.invalidate(uuid);
+        asyncStorageHandler.incrementStats(uuid, 1, 0, profit, 0L, beforeTax, System.currentTimeMillis()).thenRun(() -> onOfflinePlayerUpdated(uuid));
     }
 
     public void updateOfflinePlayerLoss(UUID uuid, long beforeTax) {
-        plugin.getScheduler().runTaskAsynchronously(() -> {
-            PlayerData playerData = storageHandler.getPlayer(uuid);
-            playerData.updateLosses();
-            playerData.updateLosses(beforeTax);
-            playerData.updateGambled(beforeTax);
-            storageHandler.savePlayer(playerData);
-        });
+        offlineCache.invalidate(uuid);
+        asyncStorageHandler.incrementStats(uuid, 0, 1, 0L, beforeTax, beforeTax, System.currentTimeMillis()).thenRun(() -> onOfflinePlayerUpdated(uuid));
+    }
+
+    private void onOfflinePlayerUpdated(UUID uuid) {
+        dataMigrator.recordChanged(uuid);
+        periodCache.refresh(uuid);
+        // The new totals are only known to storage, so the player is read back for the leaderboards.
+        fetchPlayerData(uuid).thenAccept(data -> leaderboards.update(data, null));
+    }
+
+    /**
+     * Queues a settled game to be appended to the history ledger.
+     *
+     * @param entry the game to record
+     */
+    public void recordGame(GameHistoryEntry entry) {
+        if (historyRecorder != null) {
+            historyRecorder.record(entry);
+        }
     }
 
     public void loadPlayerData(UUID uuid) {
-        plugin.getScheduler().runTaskAsynchronously(() -> {
-            PlayerData data = storageHandler.getPlayer(uuid);
+        periodCache.preload(uuid);
+        fetchPlayerData(uuid).thenAccept(data -> {
             playerDataMap.put(uuid, data);
+            offlineCache.invalidate(uuid);
         });
     }
 
-    public void savePlayerData(PlayerData player, boolean removeCache) {
-        UUID uuid = player.getUUID();
-        plugin.getScheduler().runTaskAsynchronously(() -> {
-            storageHandler.savePlayer(player);
-            if (removeCache) {
-                playerDataMap.remove(uuid);
+    /**
+     * Gets a player's data without blocking the calling thread. Online players and
+     * recently seen offline players are served from memory; anyone else is read on a
+     * storage thread, preferring changes that are queued but not yet written.
+     *
+     * @param uuid the player's UUID
+     * @return a future completed with the player's data
+     */
+    public CompletableFuture<PlayerData> fetchPlayerData(UUID uuid) {
+        final PlayerData cached = playerDataMap.get(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return offlineCache.get(uuid);
+    }
+
+    /**
+     * Gets a player's stats for the current day, week or month without blocking the
+     * calling thread. Stats changed since the last write-behind flush are not included.
+     *
+     * @param uuid   the player's UUID
+     * @param period the kind of period
+     * @return a future completed with the player's stats for the current period
+     */
+    public CompletableFuture<PeriodStats> fetchPeriodStats(UUID uuid, StatPeriod period) {
+        return periodCache.get(uuid, period);
+    }
+
+    private CompletableFuture<Map<StatPeriod, PeriodStats>> loadPeriodStats(UUID uuid, RollupSettings settings) {
+        return executor.read(uuid, () -> {
+            final long now = System.currentTimeMillis();
+            final Map<StatPeriod, PeriodStats> stats = new EnumMap<>(StatPeriod.class);
+            for (StatPeriod period : StatPeriod.values()) {
+                stats.put(period, storageHandler.getPeriodStats(uuid, period, settings.periodStart(period, now)));
             }
+
+            return stats;
         });
     }
 
+    /**
+     * Queues a player's data to be written by the write-behind queue.
+     *
+     * @param player      the player data to save
+     * @param removeCache whether to move the player from the online cache to the offline cache,
+     *                    which also forces a flush if the player has unsaved changes
+     */
+    public void savePlayerData(PlayerData player, boolean removeCache) {
+        if (removeCache) {
+            playerDataMap.remove(player.getUUID());
+            offlineCache.put(player);
+            writeQueue.enqueueAndFlush(player);
+        } else {
+            writeQueue.enqueue(player);
+        }
+    }
+
     public Map<UUID, PlayerData> getPlayerDataMap() {
         return playerDataMap;
     }
 
+    /**
+     * Gets the SQLite backup service.
+     *
+     * @return the backup service, or {@code null} if storage is not SQLite
+     */
+    public @Nullable BackupService getBackupService() {
+        return backupService;
+    }
+
+    public DataMigrator getDataMigrator() {
+        return dataMigrator;
+    }
+
+    public PlayerLoadBatcher getLoadBatcher() {
+        return loadBatcher;
+    }
+
+    public OfflinePlayerCache getOfflineCache() {
+        return offlineCache;
+    }
+
+    public LeaderboardManager getLeaderboards() {
+        return leaderboards;
+    }
+
+    public PeriodStatsCache getPeriodCache() {
+        return periodCache;
+    }
+
     public StorageHandler getStorageHandler() {
         return storageHandler;
     }
 
+    public AsyncStorageHandler getAsyncStorageHandler() {
+        return asyncStorageHandler;
+    }
+
+    public StorageExecutor getExecutor() {
+        return executor;
+    }
+
+    public WriteBehindQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    public GameHistoryRecorder getHistoryRecorder() {
+        return historyRecorder;
+    }
+
+    public EscrowJournal getEscrowJournal() {
+        return escrowJournal;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        // The copy cached on quit may be stale by now, so a join always reads storage.
+        offlineCache.invalidate(event.getUniqueId());
+
+        // This runs on the login thread, so waiting here has the data cached before the join event.
+        try {
+            fetchPlayerData(event.getUniqueId()).get(PRELOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            plugin.getLogger().warning("Could not preload coinflip data for " + event.getName() + ", it will be loaded on join instead.");
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
         loadPlayerData(event.getPlayer().getUniqueId());
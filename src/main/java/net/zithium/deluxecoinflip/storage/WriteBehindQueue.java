@@ -0,0 +1,245 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import me.nahu.scheduler.wrapper.task.WrappedTask;
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Coalesces player saves and writes them to storage in batches.
+ *
+ * <p>Saving the same player several times before a flush only writes their
+ * accumulated changes once, and players without changes are skipped. Pending
+ * records are flushed in a single transaction on a fixed interval, as soon as
+ * the configured batch size is reached, or when a flush is forced (player quit
+ * and plugin shutdown).</p>
+ */
+public class WriteBehindQueue {
+
+    private final DeluxeCoinflipPlugin plugin;
+    private final StorageHandler storageHandler;
+    private final StorageExecutor executor;
+    private final int batchSize;
+    private final long flushIntervalTicks;
+
+    private final Map<UUID, PlayerData> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private WrappedTask flushTask;
+    private Consumer<List<PlayerDelta>> writeListener = deltas -> { };
+
+    public WriteBehindQueue(DeluxeCoinflipPlugin plugin, StorageHandler storageHandler, StorageExecutor executor,
+                            int batchSize, long flushIntervalTicks) {
+        this.plugin = plugin;
+        this.storageHandler = storageHandler;
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalTicks = Math.max(1L, flushIntervalTicks);
+    }
+
+    /**
+     * Sets a callback run on the flushing thread with every batch of changes after it was written.
+     *
+     * @param writeListener the callback
+     */
+    public void setWriteListener(Consumer<List<PlayerDelta>> writeListener) {
+        this.writeListener = writeListener;
+    }
+
+    public void start() {
+        flushTask = plugin.getScheduler().runTaskTimerAsynchronously(() -> executor.write(null, this::flush), flushIntervalTicks, flushIntervalTicks);
+    }
+
+    /**
+     * Stops the periodic flush and writes everything still pending on the calling thread.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+    }
+
+    /**
+     * Queues a player's unsaved changes to be written. Does nothing if the player has none.
+     *
+     * @param data the player data to persist
+     */
+    public void enqueue(PlayerData data) {
+        if (!data.isDirty()) {
+            return;
+        }
+
+        pending.put(data.getUUID(), data);
+        if (pending.size() >= batchSize) {
+            flushAsync(null);
+        }
+    }
+
+    /**
+     * Queues a player's unsaved changes and schedules an immediate asynchronous flush.
+     * Does nothing if the player has none.
+     *
+     * @param data the player data to persist
+     */
+    public void enqueueAndFlush(PlayerData data) {
+        if (!data.isDirty()) {
+            return;
+        }
+
+        pending.put(data.getUUID(), data);
+        flushAsync(data.getUUID());
+    }
+
+    /**
+     * Loads a player, preferring a queued record over what is currently in storage.
+     * A player who rejoins before their quit save is written must not be reloaded
+     * from the stale row.
+     *
+     * @param uuid the player's UUID
+     * @return the player's data
+     */
+    public PlayerData load(UUID uuid) {
+        flushLock.lock();
+        try {
+            final PlayerData data = pending.get(uuid);
+            return data != null ? data : storageHandler.getPlayer(uuid);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Loads several players at once, preferring queued records over what is in storage.
+     *
+     * @param uuids the players' UUIDs
+     * @return every requested player's data
+     * @see #load(UUID)
+     */
+    public Map<UUID, PlayerData> loadAll(Collection<UUID> uuids) {
+        flushLock.lock();
+        try {
+            final Map<UUID, PlayerData> players = new HashMap<>();
+            final List<UUID> missing = new ArrayList<>();
+            for (UUID uuid : uuids) {
+                final PlayerData data = pending.get(uuid);
+                if (data != null) {
+                    players.put(uuid, data);
+                } else {
+                    missing.add(uuid);
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                players.putAll(storageHandler.getPlayers(missing));
+            }
+
+            return players;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a record that has been queued but not yet written.
+     *
+     * @param uuid the player's UUID
+     * @return the pending data, or {@code null} if none is queued
+     */
+    public @Nullable PlayerData getPending(UUID uuid) {
+        return pending.get(uuid);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flushAsync(@Nullable UUID key) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+
+        // A keyed flush is always queued so a later load of that player waits for it.
+        if (key != null || flushScheduled.compareAndSet(false, true)) {
+            executor.write(key, () -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Writes every pending record in one batch on the calling thread.
+     *
+     * @return the number of players written, {@code 0} if there was nothing to write or the batch failed
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+
+            final List<PlayerData> batch = new ArrayList<>(pending.size());
+            final List<PlayerDelta> deltas = new ArrayList<>(pending.size());
+            for (PlayerData data : pending.values()) {
+                if (!pending.remove(data.getUUID(), data)) {
+                    continue;
+                }
+
+                final PlayerDelta delta = data.drainDelta();
+                if (delta != null) {
+                    batch.add(data);
+                    deltas.add(delta);
+                }
+            }
+
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            boolean written;
+            try {
+                written = storageHandler.savePlayerDeltas(deltas);
+            } catch (Exception ex) {
+                plugin.getLogger().log(Level.SEVERE, "Unexpected error while writing queued player data.", ex);
+                written = false;
+            }
+
+            if (!written) {
+                plugin.getLogger().warning("Failed to write " + deltas.size() + " queued player records, they will be retried.");
+                for (int i = 0; i < batch.size(); i++) {
+                    final PlayerData data = batch.get(i);
+                    data.restoreDelta(deltas.get(i));
+                    pending.putIfAbsent(data.getUUID(), data);
+                }
+
+                return 0;
+            }
+
+            writeListener.accept(deltas);
+            return deltas.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
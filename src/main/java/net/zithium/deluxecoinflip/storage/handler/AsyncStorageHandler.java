@@ -0,0 +1,113 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.handler;
+
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.GameHistoryEntry;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A non-blocking view of a {@link StorageHandler}. Every call returns straight away
+ * and the returned future completes on a storage thread, so callers that touch the
+ * world or players must hop back onto the right thread themselves.
+ *
+ * <p>A future fails if the underlying call throws or the storage queue rejects it.</p>
+ */
+public interface AsyncStorageHandler {
+
+    /**
+     * Gets the stored data for a player.
+     *
+     * @param uuid the player's UUID
+     * @return a future completed with the player's data
+     */
+    CompletableFuture<PlayerData> getPlayer(final UUID uuid);
+
+    /**
+     * Saves a player's data to storage.
+     *
+     * @param player the player data to save
+     * @return a future completed once the data has been written
+     */
+    CompletableFuture<Void> savePlayer(final PlayerData player);
+
+    /**
+     * Saves several players' data to storage, as a single batch where supported.
+     *
+     * @param players the player data to save
+     * @return a future completed with {@code true} if every record was written
+     */
+    CompletableFuture<Boolean> savePlayers(final Collection<PlayerData> players);
+
+    /**
+     * Atomically adds to a player's stored stats.
+     *
+     * @see StorageHandler#incrementStats(UUID, int, int, long, long, long, long)
+     */
+    CompletableFuture<Boolean> incrementStats(final UUID uuid, final int winsDelta, final int lossesDelta,
+                                              final long profitDelta, final long lossDelta, final long gambledDelta,
+                                              final long settledAt);
+
+    /**
+     * Saves a coinflip game to storage.
+     *
+     * @param game the coinflip game to save
+     * @return a future completed once the game has been written
+     */
+    CompletableFuture<Void> saveCoinflip(final CoinflipGame game);
+
+    /**
+     * Deletes a coinflip game from storage.
+     *
+     * @param gameId the id of the game
+     * @return a future completed once the game has been deleted
+     */
+    CompletableFuture<Void> deleteCoinflip(final UUID gameId);
+
+    /**
+     * Deletes several coinflip games from storage as one batch.
+     *
+     * @param gameIds the ids of the games
+     * @return a future completed once the games have been deleted
+     */
+    CompletableFuture<Void> deleteCoinflips(final Collection<UUID> gameIds);
+
+    /**
+     * Gets all stored coinflip games.
+     *
+     * @return a future completed with a map of game ids to their coinflip games
+     */
+    CompletableFuture<Map<UUID, CoinflipGame>> getGames();
+
+    /**
+     * Gets a stored coinflip game by id.
+     *
+     * @param gameId the id of the game
+     * @return a future completed with the coinflip game, or {@code null} if not found
+     */
+    CompletableFuture<CoinflipGame> getCoinflipGame(final UUID gameId);
+
+    /**
+     * Gets one page of the history ledger, newest first.
+     *
+     * @see StorageHandler#getGameHistory(UUID, long, int)
+     */
+    CompletableFuture<List<GameHistoryEntry>> getGameHistory(@Nullable final UUID player, final long beforeId, final int limit);
+
+    /**
+     * Gets the blocking handler this view runs on.
+     *
+     * @return the underlying handler
+     */
+    StorageHandler getHandler();
+}
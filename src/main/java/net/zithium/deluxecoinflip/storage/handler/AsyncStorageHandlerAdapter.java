@@ -0,0 +1,93 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.handler;
+
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.GameHistoryEntry;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.StorageExecutor;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a blocking {@link StorageHandler} on the {@link StorageExecutor}. Reads go to
+ * the reader pool and writes to the writer thread, each keyed by the player they
+ * belong to so calls for one player still run in the order they were made.
+ */
+public class AsyncStorageHandlerAdapter implements AsyncStorageHandler {
+
+    private final StorageHandler handler;
+    private final StorageExecutor executor;
+
+    public AsyncStorageHandlerAdapter(StorageHandler handler, StorageExecutor executor) {
+        this.handler = handler;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> getPlayer(final UUID uuid) {
+        return executor.read(uuid, () -> handler.getPlayer(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayer(final PlayerData player) {
+        return executor.write(player.getUUID(), () -> handler.savePlayer(player));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> savePlayers(final Collection<PlayerData> players) {
+        final List<PlayerData> snapshot = List.copyOf(players);
+        return executor.write(null, () -> handler.savePlayers(snapshot));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> incrementStats(final UUID uuid, final int winsDelta, final int lossesDelta,
+                                                     final long profitDelta, final long lossDelta, final long gambledDelta,
+                                                     final long settledAt) {
+        return executor.write(uuid, () -> handler.incrementStats(uuid, winsDelta, lossesDelta, profitDelta, lossDelta, gambledDelta, settledAt));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveCoinflip(final CoinflipGame game) {
+        return executor.write(game.getGameId(), () -> handler.saveCoinflip(game));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCoinflip(final UUID gameId) {
+        return executor.write(gameId, () -> handler.deleteCoinflip(gameId));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCoinflips(final Collection<UUID> gameIds) {
+        final List<UUID> ids = List.copyOf(gameIds);
+        return executor.writeAll(ids, () -> handler.deleteCoinflips(ids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, CoinflipGame>> getGames() {
+        return executor.read(null, handler::getGames);
+    }
+
+    @Override
+    public CompletableFuture<CoinflipGame> getCoinflipGame(final UUID gameId) {
+        return executor.read(gameId, () -> handler.getCoinflipGame(gameId));
+    }
+
+    @Override
+    public CompletableFuture<List<GameHistoryEntry>> getGameHistory(@Nullable final UUID player, final long beforeId, final int limit) {
+        return executor.read(null, () -> handler.getGameHistory(player, beforeId, limit));
+    }
+
+    @Override
+    public StorageHandler getHandler() {
+        return handler;
+    }
+}
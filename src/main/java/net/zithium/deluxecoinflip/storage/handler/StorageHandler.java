@@ -7,10 +7,24 @@ package net.zithium.deluxecoinflip.storage.handler;
 
 import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
 import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.EscrowEntry;
+import net.zithium.deluxecoinflip.storage.GameHistoryEntry;
+import net.zithium.deluxecoinflip.storage.LeaderboardStat;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
 import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.PlayerDelta;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface StorageHandler {
 
@@ -35,6 +49,73 @@ public interface StorageHandler {
      */
     PlayerData getPlayer(final UUID uuid);
 
+    /**
+     * Gets the stored data for several players, in as few queries as the backend allows.
+     *
+     * @param uuids the players' UUIDs
+     * @return every requested player's data; players without a stored record get empty data
+     */
+    default Map<UUID, PlayerData> getPlayers(final Collection<UUID> uuids) {
+        final Map<UUID, PlayerData> players = new HashMap<>();
+        for (UUID uuid : uuids) {
+            players.put(uuid, getPlayer(uuid));
+        }
+
+        return players;
+    }
+
+    /**
+     * Gets one page of stored players ordered by UUID, so the whole table can be
+     * walked in fixed-size chunks. Pages are addressed by the last UUID of the
+     * previous page rather than by offset.
+     *
+     * @param after only return players whose UUID sorts after this one, or {@code null} for the first page
+     * @param limit the maximum number of players to return
+     * @return the players, or an empty list if there are no more or paging is not supported
+     */
+    default List<PlayerData> getPlayersAfter(@Nullable final UUID after, final int limit) {
+        return List.of();
+    }
+
+    /**
+     * Gets the stored players with the highest value of a stat, highest first.
+     *
+     * <p>The default implementation walks every player with {@link #getPlayersAfter};
+     * backends that can sort should override it.</p>
+     *
+     * @param stat  the stat to rank by
+     * @param limit the maximum number of players to return
+     * @return the players, or an empty list if there are none or paging is not supported
+     */
+    default List<PlayerData> getTopPlayers(final LeaderboardStat stat, final int limit) {
+        final Comparator<PlayerData> ranking = Comparator.comparingLong(stat::valueOf);
+        final PriorityQueue<PlayerData> lowestFirst = new PriorityQueue<>(ranking);
+        UUID after = null;
+        List<PlayerData> page;
+        while (!(page = getPlayersAfter(after, 1000)).isEmpty()) {
+            for (PlayerData player : page) {
+                lowestFirst.add(player);
+                if (lowestFirst.size() > limit) {
+                    lowestFirst.poll();
+                }
+            }
+            after = page.get(page.size() - 1).getUUID();
+        }
+
+        final List<PlayerData> top = new ArrayList<>(lowestFirst);
+        top.sort(ranking.reversed());
+        return top;
+    }
+
+    /**
+     * Counts the stored players.
+     *
+     * @return the number of stored players, or {@code -1} if the backend cannot tell
+     */
+    default long countPlayers() {
+        return -1L;
+    }
+
     /**
      * Saves a player's data to storage.
      *
@@ -42,6 +123,86 @@ public interface StorageHandler {
      */
     void savePlayer(final PlayerData player);
 
+    /**
+     * Saves several players' data to storage, as a single batch where supported.
+     *
+     * @param players the player data to save
+     * @return {@code true} if every record was written, {@code false} otherwise
+     */
+    default boolean savePlayers(final Collection<PlayerData> players) {
+        players.forEach(this::savePlayer);
+        return true;
+    }
+
+    /**
+     * Applies unsaved stat changes on top of what is stored, as a single batch
+     * where supported. Players without a stored row are created from the delta.
+     *
+     * <p>Backends that keep period rollups add the same counters to the current
+     * day, week and month in the same transaction.</p>
+     *
+     * <p>The default implementation reads and rewrites each player and is not
+     * atomic; backends should override it with an in-place increment.</p>
+     *
+     * @param deltas the changes to apply
+     * @return {@code true} if every change was written, {@code false} otherwise
+     */
+    default boolean savePlayerDeltas(final Collection<PlayerDelta> deltas) {
+        for (PlayerDelta delta : deltas) {
+            final PlayerData stored = getPlayer(delta.uuid());
+            final PlayerData updated = new PlayerData(delta.uuid(),
+                    stored.getWins() + delta.wins(),
+                    stored.getLosses() + delta.losses(),
+                    stored.getProfit() + delta.profit(),
+                    stored.getTotalLosses() + delta.totalLosses(),
+                    stored.getTotalGambled() + delta.totalGambled(),
+                    delta.isDirty(PlayerDelta.BROADCASTS) ? delta.displayBroadcastMessages() : stored.isDisplayBroadcastMessages());
+            savePlayer(updated);
+        }
+
+        return true;
+    }
+
+    /**
+     * Atomically adds to a player's stored stats in one statement, creating the
+     * player if they have no stored row. Used to settle games for offline players
+     * without reading their row first.
+     *
+     * @param uuid         the player's UUID
+     * @param winsDelta    wins to add
+     * @param lossesDelta  losses to add
+     * @param profitDelta  profit to add
+     * @param lossDelta    lost amount to add
+     * @param gambledDelta gambled amount to add
+     * @param settledAt    epoch milliseconds the game was settled at, which picks the rollup periods
+     * @return {@code true} if the change was written, {@code false} otherwise
+     */
+    default boolean incrementStats(final UUID uuid, final int winsDelta, final int lossesDelta,
+                                   final long profitDelta, final long lossDelta, final long gambledDelta,
+                                   final long settledAt) {
+        int dirtyFields = 0;
+        if (winsDelta != 0) dirtyFields |= PlayerDelta.WINS;
+        if (lossesDelta != 0) dirtyFields |= PlayerDelta.LOSSES;
+        if (profitDelta != 0) dirtyFields |= PlayerDelta.PROFIT;
+        if (lossDelta != 0) dirtyFields |= PlayerDelta.TOTAL_LOSSES;
+        if (gambledDelta != 0) dirtyFields |= PlayerDelta.TOTAL_GAMBLED;
+
+        return savePlayerDeltas(List.of(new PlayerDelta(uuid, dirtyFields, winsDelta, lossesDelta,
+                profitDelta, lossDelta, gambledDelta, true, settledAt)));
+    }
+
+    /**
+     * Gets a player's rolled-up stats for one day, week or month.
+     *
+     * @param uuid        the player's UUID
+     * @param period      the kind of period
+     * @param periodStart the start of the period, as given by {@link net.zithium.deluxecoinflip.storage.RollupSettings#periodStart}
+     * @return the stats, which are empty if the player has not played in the period or rollups are not supported
+     */
+    default PeriodStats getPeriodStats(final UUID uuid, final StatPeriod period, final long periodStart) {
+        return PeriodStats.empty(period, periodStart);
+    }
+
     /**
      * Saves a coinflip game to storage.
      *
@@ -52,22 +213,95 @@ public interface StorageHandler {
     /**
      * Deletes a coinflip game from storage.
      *
-     * @param uuid the UUID of the game owner
+     * @param gameId the id of the game
+     */
+    void deleteCoinflip(final UUID gameId);
+
+    /**
+     * Deletes several coinflip games from storage, as a single batch where supported.
+     *
+     * @param gameIds the ids of the games
      */
-    void deleteCoinflip(final UUID uuid);
+    default void deleteCoinflips(final Collection<UUID> gameIds) {
+        gameIds.forEach(this::deleteCoinflip);
+    }
 
     /**
      * Gets all cached or active coinflip games.
      *
-     * @return a map of game owner UUIDs to their coinflip games
+     * @return a map of game ids to their coinflip games
      */
     Map<UUID, CoinflipGame> getGames();
 
     /**
-     * Gets a coinflip game by owner UUID.
+     * Streams every stored coinflip game to the consumer without collecting them first.
      *
-     * @param uuid the owner's UUID
+     * @param consumer called once per stored game
+     */
+    default void forEachGame(final Consumer<CoinflipGame> consumer) {
+        getGames().values().forEach(consumer);
+    }
+
+    /**
+     * Gets a coinflip game by id.
+     *
+     * @param gameId the id of the game
      * @return the coinflip game, or {@code null} if not found
      */
-    CoinflipGame getCoinflipGame(final UUID uuid);
+    CoinflipGame getCoinflipGame(final UUID gameId);
+
+    /**
+     * Appends settled games to the history ledger, as a single batch where supported.
+     * Backends without a history ledger ignore the entries.
+     *
+     * @param entries the games to record
+     * @return {@code true} if every entry was written or history is not supported, {@code false} otherwise
+     */
+    default boolean saveGameHistory(final Collection<GameHistoryEntry> entries) {
+        return true;
+    }
+
+    /**
+     * Gets one page of the history ledger, newest first. Pages are addressed by
+     * the id of the last entry of the previous page rather than by offset, so
+     * each page is read straight off the index.
+     *
+     * @param player   only return games this player took part in, or {@code null} for all games
+     * @param beforeId only return entries with a smaller id; {@link Long#MAX_VALUE} for the first page
+     * @param limit    the maximum number of entries to return
+     * @return the entries, or an empty list if there are none or history is not supported
+     */
+    default List<GameHistoryEntry> getGameHistory(@Nullable final UUID player, final long beforeId, final int limit) {
+        return List.of();
+    }
+
+    /**
+     * Writes or replaces the escrow journal entry of a wager.
+     * Backends without an escrow journal ignore the entry.
+     *
+     * @param entry the entry to write
+     * @return {@code true} if the entry was written or escrow is not supported, {@code false} otherwise
+     */
+    default boolean saveEscrow(final EscrowEntry entry) {
+        return true;
+    }
+
+    /**
+     * Removes the escrow journal entry of a wager once its money has been paid out.
+     *
+     * @param gameId the id of the wager's game
+     * @return {@code true} if the entry was removed or escrow is not supported, {@code false} otherwise
+     */
+    default boolean deleteEscrow(final UUID gameId) {
+        return true;
+    }
+
+    /**
+     * Gets every wager left in the escrow journal.
+     *
+     * @return the entries, or an empty list if there are none or escrow is not supported
+     */
+    default List<EscrowEntry> getEscrows() {
+        return List.of();
+    }
 }
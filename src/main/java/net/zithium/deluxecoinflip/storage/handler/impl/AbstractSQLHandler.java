@@ -0,0 +1,734 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.handler.impl;
+
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.EscrowEntry;
+import net.zithium.deluxecoinflip.storage.GameHistoryEntry;
+import net.zithium.deluxecoinflip.storage.LeaderboardStat;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.PlayerDelta;
+import net.zithium.deluxecoinflip.storage.RollupSettings;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import net.zithium.deluxecoinflip.storage.migration.SchemaMigrator;
+import net.zithium.deluxecoinflip.storage.sql.ConnectionPool;
+import net.zithium.deluxecoinflip.storage.sql.PooledConnection;
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+import net.zithium.deluxecoinflip.utility.UUIDUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Storage shared by the SQL backends. Subclasses open a {@link ConnectionPool}
+ * and supply the statements whose syntax differs between databases.
+ */
+public abstract class AbstractSQLHandler implements StorageHandler {
+
+    private static final String SAVE_PLAYER_SQL = "REPLACE INTO players (uuid, wins, losses, profit, total_loss, total_gambled, broadcasts) VALUES (?, ?, ?, ?, ?, ?, ?);";
+    private static final String SAVE_HISTORY_SQL = "INSERT INTO game_history (winner, loser, provider, amount, tax, created_at) VALUES (?, ?, ?, ?, ?, ?);";
+    private static final String SAVE_ESCROW_SQL = "REPLACE INTO escrow (game_id, creator, provider, amount, stage, opponent, winner, payout, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);";
+    private static final String HISTORY_COLUMNS = "id, winner, loser, provider, amount, tax, created_at";
+    private static final String ALL_HISTORY_SQL = "SELECT " + HISTORY_COLUMNS + " FROM game_history WHERE id < ? ORDER BY id DESC LIMIT ?;";
+    // Each side of the union is read newest-first off its own (player, id) index, then merged.
+    private static final String PLAYER_HISTORY_SQL = "SELECT " + HISTORY_COLUMNS + " FROM (" +
+            "SELECT * FROM (SELECT " + HISTORY_COLUMNS + " FROM game_history WHERE winner = ? AND id < ? ORDER BY id DESC LIMIT ?) AS won " +
+            "UNION ALL " +
+            "SELECT * FROM (SELECT " + HISTORY_COLUMNS + " FROM game_history WHERE loser = ? AND id < ? ORDER BY id DESC LIMIT ?) AS lost" +
+            ") AS history ORDER BY id DESC LIMIT ?;";
+
+    private static final String PERIOD_STATS_SQL = "SELECT wins, losses, profit, total_loss, total_gambled FROM player_rollups WHERE uuid = ? AND period = ? AND period_start = ?;";
+
+    private static final String PLAYER_COLUMNS = "uuid, wins, losses, profit, total_loss, total_gambled, broadcasts";
+    private static final String FIRST_PLAYERS_PAGE_SQL = "SELECT " + PLAYER_COLUMNS + " FROM players ORDER BY uuid LIMIT ?;";
+    private static final String NEXT_PLAYERS_PAGE_SQL = "SELECT " + PLAYER_COLUMNS + " FROM players WHERE uuid > ? ORDER BY uuid LIMIT ?;";
+    // Well under SQLite's default limit of 999 bound parameters per statement.
+    private static final int PLAYER_LOOKUP_CHUNK_SIZE = 500;
+
+    protected DeluxeCoinflipPlugin plugin;
+    protected ConnectionPool connectionPool;
+    protected RollupSettings rollupSettings;
+
+    @Override
+    public boolean onEnable(final DeluxeCoinflipPlugin plugin) {
+        this.plugin = plugin;
+        this.rollupSettings = RollupSettings.fromConfig(plugin.getConfig().getConfigurationSection("storage.rollups"), plugin.getLogger());
+
+        connectionPool = createConnectionPool();
+        if (connectionPool == null) {
+            return false;
+        }
+
+        try {
+            connectionPool.open();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while opening the database connections.", e);
+            connectionPool.close();
+            return false;
+        }
+
+        createTable();
+
+        try {
+            new SchemaMigrator(connectionPool, dialect(), plugin.getLogger()).migrate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while migrating the database schema.", e);
+            connectionPool.close();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Prepares the connection pool for this backend. The pool is opened by the caller.
+     *
+     * @return the pool, or {@code null} if the backend could not be set up
+     */
+    protected abstract ConnectionPool createConnectionPool();
+
+    /**
+     * Gets the database this handler talks to.
+     */
+    protected abstract SQLDialect dialect();
+
+    /**
+     * Gets an upsert that adds the counters of a player delta to the stored row.
+     * Parameters 1-7 are the {@code players} columns in table order and parameter 8
+     * is whether the broadcast setting should be overwritten.
+     */
+    protected abstract String applyDeltaSql();
+
+    /**
+     * Gets an upsert that adds counters to a player's row in {@code player_rollups}.
+     * Parameters 1-3 are the key (uuid, period, period_start) and parameters 4-8
+     * are the counters in table order.
+     */
+    protected abstract String applyRollupSql();
+
+    @Override
+    public void onDisable() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Creates the original version 0 tables on a fresh database. This DDL must stay as it is;
+     * schema changes belong in a {@link net.zithium.deluxecoinflip.storage.migration.Migration}.
+     */
+    protected void createTable() {
+        try {
+            connectionPool.write(connection -> {
+                try (Statement statement = connection.getConnection().createStatement()) {
+                    String TABLE_NAME = "players";
+                    String createPlayersTable = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                            "uuid VARCHAR(255) NOT NULL PRIMARY KEY, " +
+                            "wins INTEGER, " +
+                            "losses INTEGER, " +
+                            "profit BIGINT," +
+                            "total_loss BIGINT," +
+                            "total_gambled BIGINT," +
+                            "broadcasts BOOLEAN);";
+                    statement.execute(createPlayersTable);
+
+                    String createGamesTable = "CREATE TABLE IF NOT EXISTS games (" +
+                            "uuid VARCHAR(255) NOT NULL PRIMARY KEY, " +
+                            "provider VARCHAR(255)," +
+                            "amount BIGINT);";
+                    statement.execute(createGamesTable);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while creating database tables.", e);
+        }
+    }
+
+    @Override
+    public PlayerData getPlayer(final UUID uuid) {
+        String sql = "SELECT wins, losses, profit, total_loss, total_gambled, broadcasts FROM players WHERE uuid = ?;";
+        try {
+            PlayerData playerData = connectionPool.read(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(uuid));
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+
+                    return new PlayerData(uuid,
+                            resultSet.getInt("wins"),
+                            resultSet.getInt("losses"),
+                            resultSet.getLong("profit"),
+                            resultSet.getLong("total_loss"),
+                            resultSet.getLong("total_gambled"),
+                            resultSet.getBoolean("broadcasts"));
+                }
+            });
+
+            if (playerData != null) {
+                return playerData;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get a player's data.", e);
+        }
+
+        return new PlayerData(uuid);
+    }
+
+    @Override
+    public Map<UUID, PlayerData> getPlayers(final Collection<UUID> uuids) {
+        final Map<UUID, PlayerData> players = new HashMap<>();
+        final List<UUID> remaining = new ArrayList<>(uuids);
+        try {
+            connectionPool.read(connection -> {
+                for (int start = 0; start < remaining.size(); start += PLAYER_LOOKUP_CHUNK_SIZE) {
+                    final List<UUID> chunk = remaining.subList(start, Math.min(remaining.size(), start + PLAYER_LOOKUP_CHUNK_SIZE));
+                    final String sql = "SELECT " + PLAYER_COLUMNS + " FROM players WHERE uuid IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ");";
+
+                    // The placeholder count varies per call, so these are not worth keeping in the statement cache.
+                    try (PreparedStatement preparedStatement = connection.getConnection().prepareStatement(sql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            preparedStatement.setBytes(i + 1, UUIDUtil.toBytes(chunk.get(i)));
+                        }
+
+                        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                            while (resultSet.next()) {
+                                final PlayerData player = readPlayer(resultSet);
+                                players.put(player.getUUID(), player);
+                            }
+                        }
+                    }
+                }
+
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get a batch of player data.", e);
+        }
+
+        for (UUID uuid : uuids) {
+            players.putIfAbsent(uuid, new PlayerData(uuid));
+        }
+
+        return players;
+    }
+
+    @Override
+    public List<PlayerData> getPlayersAfter(@Nullable final UUID after, final int limit) {
+        try {
+            return connectionPool.read(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(after == null ? FIRST_PLAYERS_PAGE_SQL : NEXT_PLAYERS_PAGE_SQL);
+                int index = 1;
+                if (after != null) {
+                    preparedStatement.setBytes(index++, UUIDUtil.toBytes(after));
+                }
+                preparedStatement.setInt(index, limit);
+
+                final List<PlayerData> players = new ArrayList<>(limit);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        players.add(readPlayer(resultSet));
+                    }
+                }
+
+                return players;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to page through player data.", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public List<PlayerData> getTopPlayers(final LeaderboardStat stat, final int limit) {
+        // The column comes from the enum, never from user input.
+        final String sql = "SELECT " + PLAYER_COLUMNS + " FROM players ORDER BY " + stat.column() + " DESC LIMIT ?;";
+        try {
+            return connectionPool.read(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                preparedStatement.setInt(1, limit);
+
+                final List<PlayerData> players = new ArrayList<>(limit);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        players.add(readPlayer(resultSet));
+                    }
+                }
+
+                return players;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get the top players.", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public long countPlayers() {
+        try {
+            return connectionPool.read(connection -> {
+                try (ResultSet resultSet = connection.prepare("SELECT COUNT(*) FROM players;").executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : 0L;
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to count players.", e);
+            return -1L;
+        }
+    }
+
+    @Override
+    public void savePlayer(final PlayerData player) {
+        try {
+            connectionPool.write(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(SAVE_PLAYER_SQL);
+                bindPlayer(preparedStatement, player);
+                return preparedStatement.executeUpdate();
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save a player's data.", e);
+        }
+    }
+
+    @Override
+    public boolean savePlayers(final Collection<PlayerData> players) {
+        if (players.isEmpty()) {
+            return true;
+        }
+
+        try {
+            connectionPool.transaction(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(SAVE_PLAYER_SQL);
+                for (PlayerData player : players) {
+                    bindPlayer(preparedStatement, player);
+                    preparedStatement.addBatch();
+                }
+
+                return preparedStatement.executeBatch();
+            });
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save a batch of player data.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean savePlayerDeltas(final Collection<PlayerDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return true;
+        }
+
+        try {
+            connectionPool.transaction(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(applyDeltaSql());
+                for (PlayerDelta delta : deltas) {
+                    bindDelta(preparedStatement, delta.uuid(), delta.wins(), delta.losses(), delta.profit(),
+                            delta.totalLosses(), delta.totalGambled(), delta.displayBroadcastMessages(),
+                            delta.isDirty(PlayerDelta.BROADCASTS));
+                    preparedStatement.addBatch();
+                }
+
+                preparedStatement.executeBatch();
+                saveRollups(connection, deltas);
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save player stat changes.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean incrementStats(final UUID uuid, final int winsDelta, final int lossesDelta,
+                                  final long profitDelta, final long lossDelta, final long gambledDelta,
+                                  final long settledAt) {
+        try {
+            connectionPool.transaction(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(applyDeltaSql());
+                bindDelta(preparedStatement, uuid, winsDelta, lossesDelta, profitDelta, lossDelta, gambledDelta, true, false);
+                preparedStatement.executeUpdate();
+                saveRollups(connection, List.of(new PlayerDelta(uuid, 0, winsDelta, lossesDelta,
+                        profitDelta, lossDelta, gambledDelta, true, settledAt)));
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to increment a player's stats.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public PeriodStats getPeriodStats(final UUID uuid, final StatPeriod period, final long periodStart) {
+        try {
+            final PeriodStats stats = connectionPool.read(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(PERIOD_STATS_SQL);
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(uuid));
+                preparedStatement.setString(2, period.name());
+                preparedStatement.setLong(3, periodStart);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+
+                    return new PeriodStats(period, periodStart,
+                            resultSet.getInt("wins"),
+                            resultSet.getInt("losses"),
+                            resultSet.getLong("profit"),
+                            resultSet.getLong("total_loss"),
+                            resultSet.getLong("total_gambled"));
+                }
+            });
+
+            if (stats != null) {
+                return stats;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get a player's period stats.", e);
+        }
+
+        return PeriodStats.empty(period, periodStart);
+    }
+
+    @Override
+    public void saveCoinflip(CoinflipGame game) {
+        String sql = "REPLACE INTO games (id, creator, provider, amount, created_at) VALUES (?, ?, ?, ?, ?);";
+        try {
+            connectionPool.write(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(game.getGameId()));
+                preparedStatement.setBytes(2, UUIDUtil.toBytes(game.getPlayerUUID()));
+                preparedStatement.setString(3, game.getProvider());
+                preparedStatement.setLong(4, game.getAmount());
+                preparedStatement.setLong(5, game.getCreatedAt());
+                return preparedStatement.executeUpdate();
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save a coinflip game.", e);
+        }
+    }
+
+    @Override
+    public void deleteCoinflip(UUID gameId) {
+        String sql = "DELETE FROM games WHERE id = ?;";
+        try {
+            connectionPool.write(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(gameId));
+                return preparedStatement.executeUpdate();
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to delete a coinflip game.", e);
+        }
+    }
+
+    @Override
+    public void deleteCoinflips(final Collection<UUID> gameIds) {
+        if (gameIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            connectionPool.transaction(connection -> {
+                PreparedStatement preparedStatement = connection.prepare("DELETE FROM games WHERE id = ?;");
+                for (UUID gameId : gameIds) {
+                    preparedStatement.setBytes(1, UUIDUtil.toBytes(gameId));
+                    preparedStatement.addBatch();
+                }
+
+                return preparedStatement.executeBatch();
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to delete coinflip games.", e);
+        }
+    }
+
+    @Override
+    public Map<UUID, CoinflipGame> getGames() {
+        Map<UUID, CoinflipGame> games = new HashMap<>();
+        forEachGame(game -> games.put(game.getGameId(), game));
+        return games;
+    }
+
+    @Override
+    public void forEachGame(final Consumer<CoinflipGame> consumer) {
+        String sql = "SELECT id, creator, provider, amount, created_at FROM games;";
+        try {
+            connectionPool.read(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(readGame(resultSet));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to load stored coinflip games.", e);
+        }
+    }
+
+    @Override
+    public CoinflipGame getCoinflipGame(@NotNull UUID gameId) {
+        final String sql = "SELECT id, creator, provider, amount, created_at FROM games WHERE id = ?;";
+        try {
+            return connectionPool.read(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(gameId));
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    return resultSet.next() ? readGame(resultSet) : null;
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get a coinflip game.", e);
+            return null;
+        }
+    }
+
+    private static CoinflipGame readGame(ResultSet resultSet) throws SQLException {
+        return new CoinflipGame(
+                UUIDUtil.fromBytes(resultSet.getBytes("id")),
+                UUIDUtil.fromBytes(resultSet.getBytes("creator")),
+                resultSet.getString("provider"),
+                resultSet.getLong("amount"),
+                resultSet.getLong("created_at"));
+    }
+
+    @Override
+    public boolean saveGameHistory(final Collection<GameHistoryEntry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        try {
+            connectionPool.transaction(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(SAVE_HISTORY_SQL);
+                for (GameHistoryEntry entry : entries) {
+                    preparedStatement.setBytes(1, UUIDUtil.toBytes(entry.winner()));
+                    preparedStatement.setBytes(2, UUIDUtil.toBytes(entry.loser()));
+                    preparedStatement.setString(3, entry.provider());
+                    preparedStatement.setLong(4, entry.amount());
+                    preparedStatement.setLong(5, entry.tax());
+                    preparedStatement.setLong(6, entry.timestamp());
+                    preparedStatement.addBatch();
+                }
+
+                return preparedStatement.executeBatch();
+            });
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save game history.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<GameHistoryEntry> getGameHistory(@Nullable final UUID player, final long beforeId, final int limit) {
+        try {
+            return connectionPool.read(connection -> {
+                PreparedStatement preparedStatement;
+                if (player == null) {
+                    preparedStatement = connection.prepare(ALL_HISTORY_SQL);
+                    preparedStatement.setLong(1, beforeId);
+                    preparedStatement.setInt(2, limit);
+                } else {
+                    final byte[] key = UUIDUtil.toBytes(player);
+                    preparedStatement = connection.prepare(PLAYER_HISTORY_SQL);
+                    preparedStatement.setBytes(1, key);
+                    preparedStatement.setLong(2, beforeId);
+                    preparedStatement.setInt(3, limit);
+                    preparedStatement.setBytes(4, key);
+                    preparedStatement.setLong(5, beforeId);
+                    preparedStatement.setInt(6, limit);
+                    preparedStatement.setInt(7, limit);
+                }
+
+                final List<GameHistoryEntry> entries = new ArrayList<>(limit);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        entries.add(new GameHistoryEntry(
+                                resultSet.getLong("id"),
+                                UUIDUtil.fromBytes(resultSet.getBytes("winner")),
+                                UUIDUtil.fromBytes(resultSet.getBytes("loser")),
+                                resultSet.getString("provider"),
+                                resultSet.getLong("amount"),
+                                resultSet.getLong("tax"),
+                                resultSet.getLong("created_at")));
+                    }
+                }
+                return entries;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get game history.", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public boolean saveEscrow(final EscrowEntry entry) {
+        try {
+            connectionPool.write(connection -> {
+                PreparedStatement preparedStatement = connection.prepare(SAVE_ESCROW_SQL);
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(entry.gameId()));
+                preparedStatement.setBytes(2, UUIDUtil.toBytes(entry.creator()));
+                preparedStatement.setString(3, entry.provider());
+                preparedStatement.setLong(4, entry.amount());
+                preparedStatement.setString(5, entry.stage().name());
+                preparedStatement.setBytes(6, entry.opponent() != null ? UUIDUtil.toBytes(entry.opponent()) : null);
+                preparedStatement.setBytes(7, entry.winner() != null ? UUIDUtil.toBytes(entry.winner()) : null);
+                preparedStatement.setLong(8, entry.payout());
+                preparedStatement.setLong(9, entry.updatedAt());
+                return preparedStatement.executeUpdate();
+            });
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save an escrow entry.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteEscrow(final UUID gameId) {
+        try {
+            connectionPool.write(connection -> {
+                PreparedStatement preparedStatement = connection.prepare("DELETE FROM escrow WHERE game_id = ?;");
+                preparedStatement.setBytes(1, UUIDUtil.toBytes(gameId));
+                return preparedStatement.executeUpdate();
+            });
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to delete an escrow entry.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<EscrowEntry> getEscrows() {
+        final String sql = "SELECT game_id, creator, provider, amount, stage, opponent, winner, payout, updated_at FROM escrow;";
+        try {
+            return connectionPool.read(connection -> {
+                final List<EscrowEntry> entries = new ArrayList<>();
+                PreparedStatement preparedStatement = connection.prepare(sql);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        final byte[] opponent = resultSet.getBytes("opponent");
+                        final byte[] winner = resultSet.getBytes("winner");
+                        entries.add(new EscrowEntry(
+                                UUIDUtil.fromBytes(resultSet.getBytes("game_id")),
+                                UUIDUtil.fromBytes(resultSet.getBytes("creator")),
+                                resultSet.getString("provider"),
+                                resultSet.getLong("amount"),
+                                EscrowEntry.Stage.valueOf(resultSet.getString("stage")),
+                                opponent != null ? UUIDUtil.fromBytes(opponent) : null,
+                                winner != null ? UUIDUtil.fromBytes(winner) : null,
+                                resultSet.getLong("payout"),
+                                resultSet.getLong("updated_at")));
+                    }
+                }
+                return entries;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to get the escrow journal.", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Adds stat changes to the day, week and month each delta was made in. A delta
+     * gathers a player's changes over one write-behind flush interval and counts
+     * wholly towards the periods its first change falls in.
+     */
+    private void saveRollups(PooledConnection connection, Collection<PlayerDelta> deltas) throws SQLException {
+        if (!rollupSettings.enabled()) {
+            return;
+        }
+
+        final StatPeriod[] periods = StatPeriod.values();
+        PreparedStatement preparedStatement = connection.prepare(applyRollupSql());
+        boolean batched = false;
+        for (PlayerDelta delta : deltas) {
+            if (delta.wins() == 0 && delta.losses() == 0 && delta.profit() == 0L
+                    && delta.totalLosses() == 0L && delta.totalGambled() == 0L) {
+                continue;
+            }
+
+            final byte[] key = UUIDUtil.toBytes(delta.uuid());
+            for (int i = 0; i < periods.length; i++) {
+                preparedStatement.setBytes(1, key);
+                preparedStatement.setString(2, periods[i].name());
+                preparedStatement.setLong(3, rollupSettings.periodStart(periods[i], delta.changedAt()));
+                preparedStatement.setInt(4, delta.wins());
+                preparedStatement.setInt(5, delta.losses());
+                preparedStatement.setLong(6, delta.profit());
+                preparedStatement.setLong(7, delta.totalLosses());
+                preparedStatement.setLong(8, delta.totalGambled());
+                preparedStatement.addBatch();
+                batched = true;
+            }
+        }
+
+        if (batched) {
+            preparedStatement.executeBatch();
+        }
+    }
+
+    private static PlayerData readPlayer(ResultSet resultSet) throws SQLException {
+        return new PlayerData(UUIDUtil.fromBytes(resultSet.getBytes("uuid")),
+                resultSet.getInt("wins"),
+                resultSet.getInt("losses"),
+                resultSet.getLong("profit"),
+                resultSet.getLong("total_loss"),
+                resultSet.getLong("total_gambled"),
+                resultSet.getBoolean("broadcasts"));
+    }
+
+    private static void bindPlayer(PreparedStatement preparedStatement, PlayerData player) throws SQLException {
+        preparedStatement.setBytes(1, UUIDUtil.toBytes(player.getUUID()));
+        preparedStatement.setInt(2, player.getWins());
+        preparedStatement.setInt(3, player.getLosses());
+        preparedStatement.setLong(4, player.getProfit());
+        preparedStatement.setLong(5, player.getTotalLosses());
+        preparedStatement.setLong(6, player.getTotalGambled());
+        preparedStatement.setBoolean(7, player.isDisplayBroadcastMessages());
+    }
+
+    private static void bindDelta(PreparedStatement preparedStatement, UUID uuid, int wins, int losses, long profit,
+                                  long totalLosses, long totalGambled, boolean broadcasts, boolean broadcastsChanged) throws SQLException {
+        preparedStatement.setBytes(1, UUIDUtil.toBytes(uuid));
+        preparedStatement.setInt(2, wins);
+        preparedStatement.setInt(3, losses);
+        preparedStatement.setLong(4, profit);
+        preparedStatement.setLong(5, totalLosses);
+        preparedStatement.setLong(6, totalGambled);
+        preparedStatement.setBoolean(7, broadcasts);
+        preparedStatement.setBoolean(8, broadcastsChanged);
+    }
+}
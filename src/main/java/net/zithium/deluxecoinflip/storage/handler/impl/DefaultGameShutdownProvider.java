@@ -15,12 +15,9 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
 import java.text.NumberFormat;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -51,7 +48,7 @@ public record DefaultGameShutdownProvider(DeluxeCoinflipPlugin plugin) implement
 
             final EconomyProvider provider = plugin.getEconomyManager().getEconomyProvider(game.getProvider());
             if (provider == null) {
-                removeListingAndStorage(game.getPlayerUUID());
+                removeListingAndStorage(game.getGameId());
                 continue;
             }
 
@@ -62,7 +59,9 @@ public record DefaultGameShutdownProvider(DeluxeCoinflipPlugin plugin) implement
                 refundPlayer(provider, participantId, amount, amountFormatted, game.getProvider());
             }
 
-            removeListingAndStorage(game.getPlayerUUID());
+            plugin.getStorageManager().getEscrowJournal().clear(game.getGameId());
+
+            removeListingAndStorage(game.getGameId());
         }
 
         activeCache.clear();
@@ -70,23 +69,25 @@ public record DefaultGameShutdownProvider(DeluxeCoinflipPlugin plugin) implement
 
     @Override
     public void shutdownNonActiveListings() {
+        // The listings stay in storage, still in escrow, and are restored on the next start.
+        if (plugin.getGameManager().isRestoringListings()) {
+            return;
+        }
 
-        final Map<UUID, CoinflipGame> listings = plugin.getGameManager().getCoinflipGames();
-        final List<CoinflipGame> snapshot = new ArrayList<>(listings.values());
-
-        for (CoinflipGame game : snapshot) {
+        for (CoinflipGame game : plugin.getGameManager().getListings().snapshot().games()) {
             if (game == null || game.isActiveGame()) {
                 continue;
             }
 
             final UUID creatorId = game.getPlayerUUID();
-            if (creatorId == null) {
+            // Skip listings that were joined while shutting down.
+            if (creatorId == null || plugin.getGameManager().tryCancel(game.getGameId()) == null) {
                 continue;
             }
 
             final EconomyProvider provider = plugin.getEconomyManager().getEconomyProvider(game.getProvider());
             if (provider == null) {
-                removeListingAndStorage(creatorId);
+                removeListingAndStorage(game.getGameId());
                 continue;
             }
 
@@ -94,7 +95,8 @@ public record DefaultGameShutdownProvider(DeluxeCoinflipPlugin plugin) implement
             final String amountFormatted = NumberFormat.getNumberInstance(Locale.US).format(amount);
 
             refundPlayer(provider, creatorId, amount, amountFormatted, game.getProvider());
-            removeListingAndStorage(creatorId);
+            plugin.getStorageManager().getEscrowJournal().clear(game.getGameId());
+            removeListingAndStorage(game.getGameId());
         }
     }
 
@@ -130,12 +132,12 @@ public record DefaultGameShutdownProvider(DeluxeCoinflipPlugin plugin) implement
         provider.deposit(offline, amount);
     }
 
-    private void removeListingAndStorage(UUID creatorId) {
-        if (creatorId == null) {
+    private void removeListingAndStorage(UUID gameId) {
+        if (gameId == null) {
             return;
         }
 
-        plugin.getGameManager().removeCoinflipGame(creatorId);
-        plugin.getStorageManager().getStorageHandler().deleteCoinflip(creatorId);
+        plugin.getGameManager().removeCoinflipGame(gameId);
+        plugin.getStorageManager().getStorageHandler().deleteCoinflip(gameId);
     }
 }
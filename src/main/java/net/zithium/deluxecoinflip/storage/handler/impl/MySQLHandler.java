@@ -0,0 +1,54 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.handler.impl;
+
+import net.zithium.deluxecoinflip.storage.sql.ConnectionPool;
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+import net.zithium.deluxecoinflip.storage.sql.HikariConnectionPool;
+import net.zithium.deluxecoinflip.storage.sql.MySQLSettings;
+
+/**
+ * Stores data on a MySQL or MariaDB server so several servers can share stats.
+ */
+public class MySQLHandler extends AbstractSQLHandler {
+
+    private static final String APPLY_DELTA_SQL = "INSERT INTO players (uuid, wins, losses, profit, total_loss, total_gambled, broadcasts) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "wins = COALESCE(wins, 0) + VALUES(wins), " +
+            "losses = COALESCE(losses, 0) + VALUES(losses), " +
+            "profit = COALESCE(profit, 0) + VALUES(profit), " +
+            "total_loss = COALESCE(total_loss, 0) + VALUES(total_loss), " +
+            "total_gambled = COALESCE(total_gambled, 0) + VALUES(total_gambled), " +
+            "broadcasts = IF(?, VALUES(broadcasts), broadcasts);";
+
+    private static final String APPLY_ROLLUP_SQL = "INSERT INTO player_rollups (uuid, period, period_start, wins, losses, profit, total_loss, total_gambled) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "wins = wins + VALUES(wins), " +
+            "losses = losses + VALUES(losses), " +
+            "profit = profit + VALUES(profit), " +
+            "total_loss = total_loss + VALUES(total_loss), " +
+            "total_gambled = total_gambled + VALUES(total_gambled);";
+
+    @Override
+    protected ConnectionPool createConnectionPool() {
+        return new HikariConnectionPool(MySQLSettings.fromConfig(plugin.getConfig().getConfigurationSection("storage.mysql")));
+    }
+
+    @Override
+    protected SQLDialect dialect() {
+        return SQLDialect.MYSQL;
+    }
+
+    @Override
+    protected String applyDeltaSql() {
+        return APPLY_DELTA_SQL;
+    }
+
+    @Override
+    protected String applyRollupSql() {
+        return APPLY_ROLLUP_SQL;
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.handler.impl;
+
+import me.nahu.scheduler.wrapper.task.WrappedTask;
+import net.zithium.deluxecoinflip.DeluxeCoinflipPlugin;
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.PlayerDelta;
+import net.zithium.deluxecoinflip.storage.handler.StorageHandler;
+import net.zithium.deluxecoinflip.storage.recordlog.RecordLog;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Stores players and listings in two memory-mapped, append-only record logs
+ * instead of a database, for single servers that only need fast local storage.
+ *
+ * <p>Every save appends a fixed-width record and points an in-memory index at
+ * it; a lookup is one index probe and one read from the mapping, with no JDBC or
+ * SQL in between. Superseded records are dropped by compacting a log in the
+ * background once most of it is dead. Game history and the escrow journal are
+ * not kept by this backend.</p>
+ *
+ * <p>Without the escrow journal, stakes are not crash-safe here: a stake taken
+ * for a listing that was never written, or a listing that was joined but not yet
+ * settled, is lost if the server crashes at that moment rather than refunded on
+ * the next start. Use SQLite or MySQL where that matters.</p>
+ */
+public class RecordLogHandler implements StorageHandler {
+
+    private static final byte KIND_PUT = 1;
+    private static final byte KIND_DELETE = 2;
+
+    // kind, uuid, wins, losses, profit, total_loss, total_gambled, broadcasts
+    private static final int PLAYER_PAYLOAD = 1 + 16 + 4 + 4 + 8 + 8 + 8 + 1;
+    private static final int MAX_PROVIDER_BYTES = 32;
+    // kind, game id, creator, amount, created at, provider length, provider
+    private static final int GAME_PAYLOAD = 1 + 16 + 16 + 8 + 8 + 1 + MAX_PROVIDER_BYTES;
+    // kind, creator, amount, provider length, provider; the games.log format before listings had ids
+    private static final int LEGACY_GAME_PAYLOAD = 1 + 16 + 8 + 1 + MAX_PROVIDER_BYTES;
+    private static final int RECORDS_PER_SEGMENT = 65536;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<UUID, Long> playerIndex = new TreeMap<>();
+    private final Map<UUID, Long> gameIndex = new HashMap<>();
+
+    private DeluxeCoinflipPlugin plugin;
+    private RecordLog players;
+    private RecordLog games;
+    private boolean syncWrites;
+    private double compactDeadRatio;
+    private long compactMinRecords;
+    private WrappedTask compactionTask;
+
+    @Override
+    public boolean onEnable(final DeluxeCoinflipPlugin plugin) {
+        this.plugin = plugin;
+
+        final ConfigurationSection section = plugin.getConfig().getConfigurationSection("storage.recordlog");
+        syncWrites = section != null && section.getBoolean("sync-writes", false);
+        compactDeadRatio = section != null ? section.getDouble("compact-dead-ratio", 0.5) : 0.5;
+        compactMinRecords = section != null ? section.getLong("compact-min-records", 10000L) : 10000L;
+        final long compactIntervalTicks = (section != null ? section.getLong("compact-check-interval", 300L) : 300L) * 20L;
+
+        final File folder = new File(plugin.getDataFolder(), "recordlog");
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            plugin.getLogger().severe("Could not create record log folder: " + folder.getAbsolutePath());
+            return false;
+        }
+
+        players = new RecordLog(new File(folder, "players.log").toPath(), PLAYER_PAYLOAD, RECORDS_PER_SEGMENT, plugin.getLogger());
+        games = new RecordLog(new File(folder, "listings.log").toPath(), GAME_PAYLOAD, RECORDS_PER_SEGMENT, plugin.getLogger());
+        try {
+            players.open((offset, payload) -> playerIndex.put(readUUID(payload, 1), offset));
+            games.open((offset, payload) -> {
+                final UUID uuid = readUUID(payload, 1);
+                if (payload.get(0) == KIND_DELETE) {
+                    gameIndex.remove(uuid);
+                } else {
+                    gameIndex.put(uuid, offset);
+                }
+            });
+
+            final File legacyGames = new File(folder, "games.log");
+            if (legacyGames.isFile()) {
+                convertLegacyGames(legacyGames);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while opening the record log storage.", e);
+            return false;
+        }
+
+        if (compactIntervalTicks > 0L) {
+            compactionTask = plugin.getScheduler().runTaskTimerAsynchronously(this::compactIfNeeded, compactIntervalTicks, compactIntervalTicks);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void onDisable() {
+        if (compactionTask != null) {
+            compactionTask.cancel();
+            compactionTask = null;
+        }
+
+        if (players == null || games == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            players.close();
+            games.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while closing the record log storage.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public PlayerData getPlayer(final UUID uuid) {
+        lock.readLock().lock();
+        try {
+            final PlayerData player = findPlayer(uuid);
+            return player != null ? player : new PlayerData(uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PlayerData> getPlayersAfter(@Nullable final UUID after, final int limit) {
+        lock.readLock().lock();
+        try {
+            final List<PlayerData> page = new ArrayList<>(limit);
+            final Iterator<Long> offsets = (after == null ? playerIndex : playerIndex.tailMap(after, false)).values().iterator();
+            while (page.size() < limit && offsets.hasNext()) {
+                page.add(decodePlayer(players.read(offsets.next())));
+            }
+
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long countPlayers() {
+        lock.readLock().lock();
+        try {
+            return playerIndex.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void savePlayer(final PlayerData player) {
+        savePlayers(List.of(player));
+    }
+
+    @Override
+    public boolean savePlayers(final Collection<PlayerData> batch) {
+        lock.writeLock().lock();
+        try {
+            for (PlayerData player : batch) {
+                appendPlayer(player);
+            }
+
+            sync(players);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save player data.", e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean savePlayerDeltas(final Collection<PlayerDelta> deltas) {
+        // Read, apply and append under one write lock, so concurrent deltas can never lose an update.
+        lock.writeLock().lock();
+        try {
+            for (PlayerDelta delta : deltas) {
+                final PlayerData stored = findPlayer(delta.uuid());
+                final PlayerData base = stored != null ? stored : new PlayerData(delta.uuid());
+                appendPlayer(new PlayerData(delta.uuid(),
+                        base.getWins() + delta.wins(),
+                        base.getLosses() + delta.losses(),
+                        base.getProfit() + delta.profit(),
+                        base.getTotalLosses() + delta.totalLosses(),
+                        base.getTotalGambled() + delta.totalGambled(),
+                        delta.isDirty(PlayerDelta.BROADCASTS) ? delta.displayBroadcastMessages() : base.isDisplayBroadcastMessages()));
+            }
+
+            sync(players);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save player stat changes.", e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveCoinflip(final CoinflipGame game) {
+        final byte[] provider = game.getProvider().getBytes(StandardCharsets.UTF_8);
+        if (provider.length > MAX_PROVIDER_BYTES) {
+            plugin.getLogger().severe("Cannot store the coinflip of " + game.getPlayerUUID() + ": provider name '" + game.getProvider()
+                    + "' is longer than " + MAX_PROVIDER_BYTES + " bytes.");
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            appendGame(game, provider);
+            sync(games);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to save a coinflip game.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteCoinflip(final UUID gameId) {
+        deleteCoinflips(List.of(gameId));
+    }
+
+    @Override
+    public void deleteCoinflips(final Collection<UUID> gameIds) {
+        lock.writeLock().lock();
+        try {
+            boolean deleted = false;
+            for (UUID gameId : gameIds) {
+                if (gameIndex.remove(gameId) == null) {
+                    continue;
+                }
+
+                final ByteBuffer payload = ByteBuffer.allocate(GAME_PAYLOAD);
+                payload.put(KIND_DELETE);
+                writeUUID(payload, gameId);
+                games.append(payload.array());
+                deleted = true;
+            }
+
+            if (deleted) {
+                sync(games);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while attempting to delete a coinflip game.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<UUID, CoinflipGame> getGames() {
+        final Map<UUID, CoinflipGame> result = new HashMap<>();
+        forEachGame(game -> result.put(game.getGameId(), game));
+        return result;
+    }
+
+    @Override
+    public void forEachGame(final Consumer<CoinflipGame> consumer) {
+        final List<CoinflipGame> snapshot = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            gameIndex.values().forEach(offset -> snapshot.add(decodeGame(games.read(offset))));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        snapshot.forEach(consumer);
+    }
+
+    @Override
+    public CoinflipGame getCoinflipGame(final UUID gameId) {
+        lock.readLock().lock();
+        try {
+            final Long offset = gameIndex.get(gameId);
+            return offset != null ? decodeGame(games.read(offset)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites a log without its superseded records once they make up more than
+     * the configured share of it. Lookups wait while the live records are copied.
+     */
+    private void compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            if (shouldCompact(players, playerIndex.size())) {
+                final long before = players.sizeBytes();
+                compact(players, playerIndex);
+                plugin.getLogger().info("Compacted players.log from " + before / 1024L + " KiB to " + players.sizeBytes() / 1024L + " KiB.");
+            }
+
+            if (shouldCompact(games, gameIndex.size())) {
+                compact(games, gameIndex);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error occurred while compacting the record log storage.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean shouldCompact(RecordLog log, int liveRecords) {
+        final long total = log.recordCount();
+        return total >= compactMinRecords && total - liveRecords > total * compactDeadRatio;
+    }
+
+    private static void compact(RecordLog log, Map<UUID, Long> index) throws IOException {
+        final List<UUID> keys = new ArrayList<>(index.keySet());
+        final List<byte[]> live = new ArrayList<>(keys.size());
+        keys.forEach(uuid -> live.add(log.readPayload(index.get(uuid))));
+
+        final Iterator<UUID> order = keys.iterator();
+        log.compact(live, offset -> index.put(order.next(), offset));
+    }
+
+    private @Nullable PlayerData findPlayer(UUID uuid) {
+        final Long offset = playerIndex.get(uuid);
+        return offset != null ? decodePlayer(players.read(offset)) : null;
+    }
+
+    private void appendPlayer(PlayerData player) throws IOException {
+        final ByteBuffer payload = ByteBuffer.allocate(PLAYER_PAYLOAD);
+        payload.put(KIND_PUT);
+        writeUUID(payload, player.getUUID());
+        payload.putInt(player.getWins());
+        payload.putInt(player.getLosses());
+        payload.putLong(player.getProfit());
+        payload.putLong(player.getTotalLosses());
+        payload.putLong(player.getTotalGambled());
+        payload.put((byte) (player.isDisplayBroadcastMessages() ? 1 : 0));
+        playerIndex.put(player.getUUID(), players.append(payload.array()));
+    }
+
+    private void appendGame(CoinflipGame game, byte[] provider) throws IOException {
+        final ByteBuffer payload = ByteBuffer.allocate(GAME_PAYLOAD);
+        payload.put(KIND_PUT);
+        writeUUID(payload, game.getGameId());
+        writeUUID(payload, game.getPlayerUUID());
+        payload.putLong(game.getAmount());
+        payload.putLong(game.getCreatedAt());
+        payload.put((byte) provider.length);
+        payload.put(provider);
+        gameIndex.put(game.getGameId(), games.append(payload.array()));
+    }
+
+    /**
+     * Moves the listings of a {@code games.log} written before listings had ids into
+     * {@code listings.log}, then deletes the old log. Each listing gets the id
+     * {@link CoinflipGame#legacyGameId(UUID)} derives from its creator, so if the
+     * server stops before the old log is deleted, converting it again on the next
+     * start overwrites the same listings instead of adding copies.
+     */
+    private void convertLegacyGames(File file) throws IOException {
+        final Map<UUID, byte[]> legacyGames = new HashMap<>();
+        // Read without mapping, which would keep the file from being deleted on Windows.
+        RecordLog.replay(file.toPath(), LEGACY_GAME_PAYLOAD, plugin.getLogger(), (offset, payload) -> {
+            final UUID creator = readUUID(payload, 1);
+            if (payload.get(0) == KIND_DELETE) {
+                legacyGames.remove(creator);
+            } else {
+                final byte[] copy = new byte[LEGACY_GAME_PAYLOAD];
+                payload.get(0, copy);
+                legacyGames.put(creator, copy);
+            }
+        });
+
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, byte[]> entry : legacyGames.entrySet()) {
+            final ByteBuffer payload = ByteBuffer.wrap(entry.getValue());
+            final byte[] provider = new byte[payload.get(25)];
+            payload.get(26, provider);
+            appendGame(new CoinflipGame(CoinflipGame.legacyGameId(entry.getKey()), entry.getKey(),
+                    new String(provider, StandardCharsets.UTF_8), payload.getLong(17), now), provider);
+        }
+        games.force();
+
+        Files.delete(file.toPath());
+        plugin.getLogger().info("Converted " + legacyGames.size() + " listings from games.log to listings.log.");
+    }
+
+    private void sync(RecordLog log) {
+        if (syncWrites) {
+            log.force();
+        }
+    }
+
+    private static PlayerData decodePlayer(ByteBuffer payload) {
+        return new PlayerData(readUUID(payload, 1),
+                payload.getInt(17),
+                payload.getInt(21),
+                payload.getLong(25),
+                payload.getLong(33),
+                payload.getLong(41),
+                payload.get(49) != 0);
+    }
+
+    private static CoinflipGame decodeGame(ByteBuffer payload) {
+        final int providerLength = payload.get(49);
+        final byte[] provider = new byte[providerLength];
+        payload.get(50, provider);
+        return new CoinflipGame(readUUID(payload, 1), readUUID(payload, 17), new String(provider, StandardCharsets.UTF_8),
+                payload.getLong(33), payload.getLong(41));
+    }
+
+    private static UUID readUUID(ByteBuffer payload, int index) {
+        return new UUID(payload.getLong(index), payload.getLong(index + 8));
+    }
+
+    private static void writeUUID(ByteBuffer payload, UUID uuid) {
+        payload.putLong(uuid.getMostSignificantBits());
+        payload.putLong(uuid.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+import net.zithium.deluxecoinflip.utility.UUIDUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Converts the text {@code uuid} keys of {@code players} and {@code games} to 16-byte binary keys.
+ *
+ * <p>Each table is copied into a new table with the binary key, and both are swapped
+ * in under the original names through {@link TableSwap}. Rows whose key is not a
+ * valid UUID are dropped.</p>
+ */
+final class BinaryUUIDMigration implements Migration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "Store player and game UUIDs as 16-byte binary keys";
+    }
+
+    @Override
+    public void migrate(Connection connection, SQLDialect dialect, Logger logger) throws SQLException {
+        final TableSwap swap = new TableSwap(connection, dialect, "_v1");
+        if (swap.prepare("players", isBinary(connection, "players"))) {
+            convert(connection, logger, "players", swap.copyOf("players"),
+                    "CREATE TABLE " + swap.copyOf("players") + " (" +
+                            "uuid " + dialect.uuidType() + " NOT NULL PRIMARY KEY, " +
+                            "wins INTEGER, " +
+                            "losses INTEGER, " +
+                            "profit BIGINT, " +
+                            "total_loss BIGINT, " +
+                            "total_gambled BIGINT, " +
+                            "broadcasts BOOLEAN);",
+                    "uuid, wins, losses, profit, total_loss, total_gambled, broadcasts", 7);
+        }
+
+        if (swap.prepare("games", isBinary(connection, "games"))) {
+            convert(connection, logger, "games", swap.copyOf("games"),
+                    "CREATE TABLE " + swap.copyOf("games") + " (" +
+                            "uuid " + dialect.uuidType() + " NOT NULL PRIMARY KEY, " +
+                            "provider VARCHAR(255), " +
+                            "amount BIGINT);",
+                    "uuid, provider, amount", 3);
+        }
+
+        // Both tables at once, so a crash cannot leave one converted and the other not.
+        swap.swap();
+    }
+
+    private static boolean isBinary(Connection connection, String table) throws SQLException {
+        final Integer type = MigrationSupport.columnType(connection, table, "uuid");
+        return type != null && (type == Types.BINARY || type == Types.VARBINARY
+                || type == Types.LONGVARBINARY || type == Types.BLOB);
+    }
+
+    private void convert(Connection connection, Logger logger, String table, String newTable, String createSql,
+                         String columns, int columnCount) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(createSql);
+        }
+
+        final String placeholders = "?" + ", ?".repeat(columnCount - 1);
+        int converted = 0;
+        int skipped = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery("SELECT " + columns + " FROM " + table + ";");
+             PreparedStatement insert = connection.prepareStatement(
+                     "REPLACE INTO " + newTable + " (" + columns + ") VALUES (" + placeholders + ");")) {
+            int batched = 0;
+            while (resultSet.next()) {
+                final UUID uuid;
+                try {
+                    uuid = UUID.fromString(resultSet.getString(1).trim());
+                } catch (IllegalArgumentException | NullPointerException ex) {
+                    skipped++;
+                    continue;
+                }
+
+                insert.setBytes(1, UUIDUtil.toBytes(uuid));
+                for (int column = 2; column <= columnCount; column++) {
+                    insert.setObject(column, resultSet.getObject(column));
+                }
+                insert.addBatch();
+                converted++;
+
+                if (++batched >= BATCH_SIZE) {
+                    insert.executeBatch();
+                    batched = 0;
+                }
+            }
+
+            if (batched > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        logger.info("Converted " + converted + " rows in '" + table + "' to binary UUID keys.");
+        if (skipped > 0) {
+            logger.warning("Dropped " + skipped + " rows from '" + table + "' because their UUID could not be read.");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * Adds the {@code escrow} journal of wagers whose money is held by the plugin.
+ */
+final class EscrowMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 3;
+    }
+
+    @Override
+    public String description() {
+        return "Add the escrow journal";
+    }
+
+    @Override
+    public void migrate(Connection connection, SQLDialect dialect, Logger logger) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS escrow (" +
+                    "creator " + dialect.uuidType() + " NOT NULL PRIMARY KEY, " +
+                    "provider VARCHAR(255) NOT NULL, " +
+                    "amount BIGINT NOT NULL, " +
+                    "stage VARCHAR(16) NOT NULL, " +
+                    "opponent " + dialect.uuidType() + ", " +
+                    "winner " + dialect.uuidType() + ", " +
+                    "payout BIGINT NOT NULL, " +
+                    "updated_at BIGINT NOT NULL);");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * Adds the append-only {@code game_history} ledger of settled games.
+ *
+ * <p>The per-player indexes end in {@code id} so a player's history can be
+ * paged newest-first straight off the index.</p>
+ */
+final class GameHistoryMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public String description() {
+        return "Add the game_history table";
+    }
+
+    @Override
+    public void migrate(Connection connection, SQLDialect dialect, Logger logger) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS game_history (" +
+                    "id " + dialect.autoIncrementKey() + ", " +
+                    "winner " + dialect.uuidType() + " NOT NULL, " +
+                    "loser " + dialect.uuidType() + " NOT NULL, " +
+                    "provider VARCHAR(255) NOT NULL, " +
+                    "amount BIGINT NOT NULL, " +
+                    "tax BIGINT NOT NULL, " +
+                    "created_at BIGINT NOT NULL);");
+        }
+
+        MigrationSupport.createIndexIfMissing(connection, "idx_game_history_winner", "game_history", "winner, id");
+        MigrationSupport.createIndexIfMissing(connection, "idx_game_history_loser", "game_history", "loser, id");
+        MigrationSupport.createIndexIfMissing(connection, "idx_game_history_created", "game_history", "created_at");
+    }
+}
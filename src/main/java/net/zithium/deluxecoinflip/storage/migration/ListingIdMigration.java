@@ -0,0 +1,154 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.game.CoinflipGame;
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+import net.zithium.deluxecoinflip.utility.UUIDUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Keys {@code games} and {@code escrow} by a game id instead of the creator's UUID,
+ * so a player can have several listings open at once.
+ *
+ * <p>Every stored listing is given the id {@link CoinflipGame#legacyGameId(UUID)}
+ * derives from its creator, and the time of the migration as its creation time.
+ * Its escrow entry, if any, gets the same id; so does the entry of a game that was
+ * already joined, which no listing shares any more. Both tables are rebuilt and
+ * swapped in together through {@link TableSwap}.</p>
+ */
+final class ListingIdMigration implements Migration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public int version() {
+        return 5;
+    }
+
+    @Override
+    public String description() {
+        return "Key listings and escrow by game id";
+    }
+
+    @Override
+    public void migrate(Connection connection, SQLDialect dialect, Logger logger) throws SQLException {
+        final TableSwap swap = new TableSwap(connection, dialect, "_v5");
+        if (swap.prepare("games", MigrationSupport.hasColumn(connection, "games", "id"))) {
+            convertGames(connection, dialect, logger, swap.copyOf("games"));
+        }
+
+        if (swap.prepare("escrow", MigrationSupport.hasColumn(connection, "escrow", "game_id"))) {
+            convertEscrow(connection, dialect, logger, swap.copyOf("escrow"));
+        }
+
+        // Both tables at once, so listings and their escrow entries never disagree on ids.
+        swap.swap();
+        MigrationSupport.createIndexIfMissing(connection, "idx_games_creator", "games", "creator");
+    }
+
+    private static void convertGames(Connection connection, SQLDialect dialect, Logger logger, String newTable) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + newTable + " (" +
+                    "id " + dialect.uuidType() + " NOT NULL PRIMARY KEY, " +
+                    "creator " + dialect.uuidType() + " NOT NULL, " +
+                    "provider VARCHAR(255), " +
+                    "amount BIGINT, " +
+                    "created_at BIGINT NOT NULL);");
+        }
+
+        final long now = System.currentTimeMillis();
+        int games = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery("SELECT uuid, provider, amount FROM games;");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO " + newTable + " (id, creator, provider, amount, created_at) VALUES (?, ?, ?, ?, ?);")) {
+            int batched = 0;
+            while (resultSet.next()) {
+                final byte[] creator = resultSet.getBytes("uuid");
+                insert.setBytes(1, gameId(creator));
+                insert.setBytes(2, creator);
+                insert.setString(3, resultSet.getString("provider"));
+                insert.setLong(4, resultSet.getLong("amount"));
+                insert.setLong(5, now);
+                insert.addBatch();
+                games++;
+
+                if (++batched >= BATCH_SIZE) {
+                    insert.executeBatch();
+                    batched = 0;
+                }
+            }
+
+            if (batched > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        logger.info("Assigned game ids to " + games + " stored listings.");
+    }
+
+    private static void convertEscrow(Connection connection, SQLDialect dialect, Logger logger, String newTable) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + newTable + " (" +
+                    "game_id " + dialect.uuidType() + " NOT NULL PRIMARY KEY, " +
+                    "creator " + dialect.uuidType() + " NOT NULL, " +
+                    "provider VARCHAR(255) NOT NULL, " +
+                    "amount BIGINT NOT NULL, " +
+                    "stage VARCHAR(16) NOT NULL, " +
+                    "opponent " + dialect.uuidType() + ", " +
+                    "winner " + dialect.uuidType() + ", " +
+                    "payout BIGINT NOT NULL, " +
+                    "updated_at BIGINT NOT NULL);");
+        }
+
+        int escrows = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery(
+                     "SELECT creator, provider, amount, stage, opponent, winner, payout, updated_at FROM escrow;");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO " + newTable + " (game_id, creator, provider, amount, stage, opponent, winner, payout, updated_at) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);")) {
+            int batched = 0;
+            while (resultSet.next()) {
+                final byte[] creator = resultSet.getBytes("creator");
+                insert.setBytes(1, gameId(creator));
+                insert.setBytes(2, creator);
+                insert.setString(3, resultSet.getString("provider"));
+                insert.setLong(4, resultSet.getLong("amount"));
+                insert.setString(5, resultSet.getString("stage"));
+                insert.setBytes(6, resultSet.getBytes("opponent"));
+                insert.setBytes(7, resultSet.getBytes("winner"));
+                insert.setLong(8, resultSet.getLong("payout"));
+                insert.setLong(9, resultSet.getLong("updated_at"));
+                insert.addBatch();
+                escrows++;
+
+                if (++batched >= BATCH_SIZE) {
+                    insert.executeBatch();
+                    batched = 0;
+                }
+            }
+
+            if (batched > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        logger.info("Assigned game ids to " + escrows + " escrow entries.");
+    }
+
+    private static byte[] gameId(byte[] creator) {
+        return UUIDUtil.toBytes(CoinflipGame.legacyGameId(UUIDUtil.fromBytes(creator)));
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * One versioned change to the database schema.
+ *
+ * <p>Migrations are applied once, in version order, and must never be edited
+ * after they have shipped. Any later schema change is a new migration.</p>
+ */
+public interface Migration {
+
+    /**
+     * Gets the schema version this migration brings the database to. Versions start at 1.
+     */
+    int version();
+
+    /**
+     * Gets a short description logged when the migration is applied.
+     */
+    String description();
+
+    /**
+     * Applies the change. Runs inside a transaction on SQLite. MySQL commits every DDL
+     * statement on its own, so a run cut short there is repeated from the start on the
+     * next startup, and must pick up from whatever the earlier run left behind. Tables
+     * are created with {@code IF NOT EXISTS}, indexes through
+     * {@link MigrationSupport#createIndexIfMissing}, and tables are rebuilt through
+     * {@link TableSwap}, which never drops the only copy of the data.
+     *
+     * @param connection the connection to apply the change on
+     * @param dialect    the database being migrated
+     * @param logger     logger for progress and skipped rows
+     * @throws SQLException if the change could not be applied
+     */
+    void migrate(Connection connection, SQLDialect dialect, Logger logger) throws SQLException;
+}
@@ -0,0 +1,80 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Schema lookups that let a migration tell how far an earlier, interrupted run got.
+ */
+final class MigrationSupport {
+
+    private MigrationSupport() {
+    }
+
+    static boolean tableExists(Connection connection, String table) throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        // The name is a pattern in which '_' matches any character, so compare the results exactly.
+        try (ResultSet resultSet = metaData.getTables(connection.getCatalog(), null, table, new String[]{"TABLE"})) {
+            while (resultSet.next()) {
+                if (table.equalsIgnoreCase(resultSet.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the {@link java.sql.Types} code of a column, or {@code null} if the table or column does not exist.
+     */
+    static Integer columnType(Connection connection, String table, String column) throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet resultSet = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+            while (resultSet.next()) {
+                if (table.equalsIgnoreCase(resultSet.getString("TABLE_NAME"))
+                        && column.equalsIgnoreCase(resultSet.getString("COLUMN_NAME"))) {
+                    return resultSet.getInt("DATA_TYPE");
+                }
+            }
+        }
+        return null;
+    }
+
+    static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        return columnType(connection, table, column) != null;
+    }
+
+    static boolean isEmpty(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1 FROM " + table + " LIMIT 1;")) {
+            return !resultSet.next();
+        }
+    }
+
+    /**
+     * Creates an index unless one with the same name is already on the table. Neither
+     * database supports {@code CREATE INDEX IF NOT EXISTS} in every supported version.
+     */
+    static void createIndexIfMissing(Connection connection, String index, String table, String columns) throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+            while (resultSet.next()) {
+                if (index.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))) {
+                    return;
+                }
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ");");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * Adds the {@code player_rollups} table of per-day, per-week and per-month stats.
+ *
+ * <p>Rows are keyed by player, period kind and period start, so a player's stats
+ * for the current period are a single primary key lookup. The period index lets a
+ * whole period be ranked or pruned without scanning every player.</p>
+ */
+final class PlayerRollupMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 4;
+    }
+
+    @Override
+    public String description() {
+        return "Add the player_rollups table";
+    }
+
+    @Override
+    public void migrate(Connection connection, SQLDialect dialect, Logger logger) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS player_rollups (" +
+                    "uuid " + dialect.uuidType() + " NOT NULL, " +
+                    "period VARCHAR(8) NOT NULL, " +
+                    "period_start BIGINT NOT NULL, " +
+                    "wins INTEGER NOT NULL, " +
+                    "losses INTEGER NOT NULL, " +
+                    "profit BIGINT NOT NULL, " +
+                    "total_loss BIGINT NOT NULL, " +
+                    "total_gambled BIGINT NOT NULL, " +
+                    "PRIMARY KEY (uuid, period, period_start));");
+        }
+
+        MigrationSupport.createIndexIfMissing(connection, "idx_player_rollups_period", "player_rollups", "period, period_start");
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.ConnectionPool;
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Brings the database schema up to date on startup.
+ *
+ * <p>The applied version is recorded in the {@code schema_meta} table, one row
+ * per migration. Pending migrations are applied in version order, each in its
+ * own transaction together with its {@code schema_meta} row.</p>
+ */
+public final class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new BinaryUUIDMigration(),
+            new GameHistoryMigration(),
+            new EscrowMigration(),
+            new PlayerRollupMigration(),
+            new ListingIdMigration()
+    );
+
+    private static final String LOCK_NAME = "deluxecoinflip_schema";
+
+    private final ConnectionPool connectionPool;
+    private final SQLDialect dialect;
+    private final Logger logger;
+
+    public SchemaMigrator(ConnectionPool connectionPool, SQLDialect dialect, Logger logger) {
+        this.connectionPool = connectionPool;
+        this.dialect = dialect;
+        this.logger = logger;
+    }
+
+    /**
+     * Gets the version of the newest migration this build knows about.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.stream().mapToInt(Migration::version).max().orElse(0);
+    }
+
+    /**
+     * Applies every migration newer than the recorded schema version.
+     *
+     * @throws SQLException if a migration failed, or the database is newer than this build
+     */
+    public void migrate() throws SQLException {
+        connectionPool.write(connection -> {
+            final Connection raw = connection.getConnection();
+            // Servers sharing a MySQL database may start at the same time; only one may migrate.
+            lock(raw);
+            try {
+                createMetaTable(raw);
+
+                final int current = currentVersion(raw);
+                if (current > latestVersion()) {
+                    throw new SQLException("The database schema is at version " + current
+                            + " but this version of the plugin only supports up to " + latestVersion() + ".");
+                }
+
+                for (Migration migration : MIGRATIONS.stream().sorted(Comparator.comparingInt(Migration::version)).toList()) {
+                    if (migration.version() <= current) {
+                        continue;
+                    }
+
+                    logger.info("Applying database migration " + migration.version() + ": " + migration.description());
+                    connection.inTransaction(transaction -> {
+                        migration.migrate(raw, dialect, logger);
+                        recordVersion(raw, migration);
+                        return null;
+                    });
+                }
+            } finally {
+                unlock(raw);
+            }
+            return null;
+        });
+    }
+
+    private void createMetaTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_meta (" +
+                    "version INTEGER NOT NULL PRIMARY KEY, " +
+                    "description VARCHAR(255) NOT NULL, " +
+                    "applied_at BIGINT NOT NULL);");
+        }
+    }
+
+    private int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(version) FROM schema_meta;")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private void recordVersion(Connection connection, Migration migration) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO schema_meta (version, description, applied_at) VALUES (?, ?, ?);")) {
+            preparedStatement.setInt(1, migration.version());
+            preparedStatement.setString(2, migration.description());
+            preparedStatement.setLong(3, System.currentTimeMillis());
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private void lock(Connection connection) throws SQLException {
+        if (dialect != SQLDialect.MYSQL) {
+            return;
+        }
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, 60);")) {
+            preparedStatement.setString(1, LOCK_NAME);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another server to finish migrating the database.");
+                }
+            }
+        }
+    }
+
+    private void unlock(Connection connection) {
+        if (dialect != SQLDialect.MYSQL) {
+            return;
+        }
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?);")) {
+            preparedStatement.setString(1, LOCK_NAME);
+            preparedStatement.executeQuery().close();
+        } catch (SQLException ex) {
+            logger.warning("Could not release the database migration lock: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.migration;
+
+import net.zithium.deluxecoinflip.storage.sql.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces tables with rebuilt copies so that a run cut short at any step can be
+ * picked up again by running the migration from the start.
+ *
+ * <p>Each table is copied into {@code <table><suffix>} and every copy is swapped in at
+ * the end. On MySQL, where each DDL statement commits on its own, the swap is a single
+ * {@code RENAME TABLE} of all tables, which is atomic, and the originals are dropped
+ * afterwards. The original table therefore holds the data until the swap has happened,
+ * and the copy does so afterwards.</p>
+ *
+ * <p>{@link #prepare(String, boolean)} works out where an earlier run stopped:</p>
+ * <ul>
+ *     <li>a leftover {@code <table>_old} means the swap happened and it is dropped;</li>
+ *     <li>a table already in the new shape is left alone;</li>
+ *     <li>a copy whose original is missing or empty is kept and swapped in, since only
+ *     a finished copy outlives its original;</li>
+ *     <li>otherwise the original is the only trusted data, and the copy is rebuilt.</li>
+ * </ul>
+ */
+final class TableSwap {
+
+    private static final String OLD_SUFFIX = "_old";
+
+    private final Connection connection;
+    private final SQLDialect dialect;
+    private final String suffix;
+    private final List<String> pending = new ArrayList<>();
+
+    TableSwap(Connection connection, SQLDialect dialect, String suffix) {
+        this.connection = connection;
+        this.dialect = dialect;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Gets the name the copy of a table is built under.
+     */
+    String copyOf(String table) {
+        return table + suffix;
+    }
+
+    /**
+     * Works out how far an earlier run got with a table and queues its copy for the swap.
+     *
+     * @param table     the table to replace
+     * @param converted whether the table is already in the new shape
+     * @return {@code true} if the copy must be built now, under {@link #copyOf(String)};
+     * {@code false} if there is nothing to build
+     */
+    boolean prepare(String table, boolean converted) throws SQLException {
+        final String copy = copyOf(table);
+        try (Statement statement = connection.createStatement()) {
+            // Only left behind once the swap has happened, when the new table holds everything.
+            statement.execute("DROP TABLE IF EXISTS " + table + OLD_SUFFIX + ";");
+
+            if (converted) {
+                statement.execute("DROP TABLE IF EXISTS " + copy + ";");
+                return false;
+            }
+
+            final boolean original = MigrationSupport.tableExists(connection, table);
+            if (MigrationSupport.tableExists(connection, copy) && (!original || MigrationSupport.isEmpty(connection, table))) {
+                pending.add(table);
+                return false;
+            }
+
+            statement.execute("DROP TABLE IF EXISTS " + copy + ";");
+        }
+
+        pending.add(table);
+        return true;
+    }
+
+    /**
+     * Swaps every queued copy in under its table's name and drops the originals.
+     */
+    void swap() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            if (dialect == SQLDialect.MYSQL) {
+                final List<String> renames = new ArrayList<>();
+                final List<String> replaced = new ArrayList<>();
+                for (String table : pending) {
+                    if (MigrationSupport.tableExists(connection, table)) {
+                        renames.add(table + " TO " + table + OLD_SUFFIX);
+                        replaced.add(table);
+                    }
+                    renames.add(copyOf(table) + " TO " + table);
+                }
+
+                statement.execute("RENAME TABLE " + String.join(", ", renames) + ";");
+                for (String table : replaced) {
+                    statement.execute("DROP TABLE " + table + OLD_SUFFIX + ";");
+                }
+            } else {
+                // SQLite runs the whole migration in one transaction, so no step is seen on its own.
+                for (String table : pending) {
+                    statement.execute("DROP TABLE IF EXISTS " + table + ";");
+                    statement.execute("ALTER TABLE " + copyOf(table) + " RENAME TO " + table + ";");
+                }
+            }
+        }
+
+        pending.clear();
+    }
+}
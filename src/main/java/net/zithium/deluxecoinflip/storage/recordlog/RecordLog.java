@@ -0,0 +1,343 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.recordlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of fixed-width records, memory-mapped in fixed-size segments.
+ *
+ * <p>Each record is its payload followed by a CRC32 of the payload. The first
+ * payload byte is a record kind chosen by the caller and must not be zero: the
+ * file grows a whole segment at a time and the unused tail is zero-filled, so a
+ * zero byte marks the end of the log. A record whose checksum does not match was
+ * torn by a crash mid-write; the log ends before it and the next append
+ * overwrites it.</p>
+ *
+ * <p>Compaction never replaces the mapped file, which Windows refuses while a
+ * mapping of it is alive, and the JDK cannot unmap on demand. It writes the
+ * kept records to the next generation, {@code <name>.1}, {@code <name>.2} and so
+ * on, and switches to it. Opening picks the newest generation and deletes the
+ * older ones, or leaves them for the next open if they are still mapped.</p>
+ *
+ * <p>Not thread-safe. Callers must not read while a write or compaction is in progress.</p>
+ */
+public final class RecordLog implements AutoCloseable {
+
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    private final Path base;
+    private final int recordSize;
+    private final int payloadSize;
+    private final long segmentBytes;
+    private final Logger logger;
+
+    private Path path;
+    private int generation;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long end;
+
+    /**
+     * @param path              the log file, created if missing; later generations are kept beside it
+     * @param payloadSize       the payload bytes per record, not counting the checksum
+     * @param recordsPerSegment records per mapped segment; the file grows by this many records at a time
+     * @param logger            where torn records are reported
+     */
+    public RecordLog(Path path, int payloadSize, int recordsPerSegment, Logger logger) {
+        this.base = path;
+        this.path = path;
+        this.payloadSize = payloadSize;
+        this.recordSize = payloadSize + CHECKSUM_BYTES;
+        this.segmentBytes = (long) recordSize * recordsPerSegment;
+        this.logger = logger;
+    }
+
+    /**
+     * Maps the file and replays every intact record in the order it was written.
+     *
+     * @param replay called with each record's offset and a read-only view of its payload
+     * @throws IOException if the file could not be opened or mapped
+     */
+    public void open(RecordConsumer replay) throws IOException {
+        generation = newestGeneration();
+        path = generationPath(generation);
+        deleteOtherGenerations();
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final long fileSize = channel.size();
+        do {
+            mapSegment();
+        } while ((long) segments.size() * segmentBytes < fileSize);
+
+        end = 0L;
+        final byte[] record = new byte[recordSize];
+        while (end + recordSize <= capacity()) {
+            readRecord(end, record);
+            if (record[0] == 0) {
+                break;
+            }
+
+            if (!checksumMatches(record, payloadSize)) {
+                logger.warning("Ignoring a torn record at offset " + end + " of " + path.getFileName() + ", it was not fully written before a crash.");
+                break;
+            }
+
+            replay.accept(end, ByteBuffer.wrap(record, 0, payloadSize).asReadOnlyBuffer());
+            end += recordSize;
+        }
+    }
+
+    /**
+     * Replays the intact records of a log file without mapping it, so that the file
+     * can be deleted straight afterwards, which Windows refuses while it is mapped.
+     *
+     * @param path        the log file
+     * @param payloadSize the payload bytes per record, not counting the checksum
+     * @param logger      where torn records are reported
+     * @param replay      called with each record's offset and a read-only view of its payload, only valid during the call
+     * @throws IOException if the file could not be read
+     */
+    public static void replay(Path path, int payloadSize, Logger logger, RecordConsumer replay) throws IOException {
+        final ByteBuffer record = ByteBuffer.allocate(payloadSize + CHECKSUM_BYTES);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long offset = 0L;
+            while (true) {
+                record.clear();
+                while (record.hasRemaining() && channel.read(record, offset + record.position()) > 0) {
+                    // Keep reading until the record is complete or the file ends.
+                }
+
+                if (record.hasRemaining() || record.get(0) == 0) {
+                    break;
+                }
+
+                if (!checksumMatches(record.array(), payloadSize)) {
+                    logger.warning("Ignoring a torn record at offset " + offset + " of " + path.getFileName() + ", it was not fully written before a crash.");
+                    break;
+                }
+
+                replay.accept(offset, ByteBuffer.wrap(record.array(), 0, payloadSize).asReadOnlyBuffer());
+                offset += record.capacity();
+            }
+        }
+    }
+
+    /**
+     * Appends a record to the end of the log.
+     *
+     * @param payload exactly {@link #payloadSize()} bytes, the first of which must not be zero
+     * @return the offset the record was written at
+     * @throws IOException if the log had to grow and the new segment could not be mapped
+     */
+    public long append(byte[] payload) throws IOException {
+        if (payload.length != payloadSize || payload[0] == 0) {
+            throw new IllegalArgumentException("Record payloads must be " + payloadSize + " bytes and start with a non-zero kind");
+        }
+
+        if (end + recordSize > capacity()) {
+            mapSegment();
+        }
+
+        final long offset = end;
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        final MappedByteBuffer segment = segments.get((int) (offset / segmentBytes));
+        final int position = (int) (offset % segmentBytes);
+        // Checksum first so a record is never seen as complete before its payload is.
+        segment.putInt(position + payloadSize, (int) crc.getValue());
+        segment.put(position, payload);
+        end += recordSize;
+        return offset;
+    }
+
+    /**
+     * Reads the payload of the record at an offset returned by {@link #append} or replay.
+     *
+     * @param offset the record's offset
+     * @return a buffer over a copy of the payload
+     */
+    public ByteBuffer read(long offset) {
+        return ByteBuffer.wrap(readPayload(offset));
+    }
+
+    /**
+     * Reads a copy of the payload of the record at an offset.
+     *
+     * @param offset the record's offset
+     * @return the payload bytes
+     */
+    public byte[] readPayload(long offset) {
+        final byte[] payload = new byte[payloadSize];
+        segments.get((int) (offset / segmentBytes)).get((int) (offset % segmentBytes), payload);
+        return payload;
+    }
+
+    /**
+     * Rewrites the log so it holds only the given records, in the given order. The
+     * records are written and synced to a temporary file, which is then renamed to
+     * the next generation and opened; a crash before the rename leaves the current
+     * generation in place, and one after it is picked up by the next open.
+     *
+     * @param payloads the records to keep
+     * @param offsets  called with the new offset of each record, in the same order
+     * @throws IOException if the new log could not be written or swapped in
+     */
+    public void compact(Iterable<byte[]> payloads, LongConsumer offsets) throws IOException {
+        final Path temporary = base.resolveSibling(base.getFileName() + ".compact");
+        final List<Long> written = new ArrayList<>();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+            final CRC32 crc = new CRC32();
+            long offset = 0L;
+            for (byte[] payload : payloads) {
+                crc.reset();
+                crc.update(payload);
+                buffer.clear();
+                buffer.put(payload).putInt((int) crc.getValue()).flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+
+                written.add(offset);
+                offset += recordSize;
+            }
+
+            out.force(true);
+        }
+
+        try {
+            Files.move(temporary, generationPath(generation + 1), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // Keep serving the current generation, which is still complete.
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+
+        close();
+        open((offset, payload) -> { });
+        written.forEach(offsets::accept);
+    }
+
+    /**
+     * Flushes written records to disk, so they also survive an operating system crash or power loss.
+     */
+    public void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            segments.clear();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public int payloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * @return the number of records in the log, live or superseded
+     */
+    public long recordCount() {
+        return end / recordSize;
+    }
+
+    public long sizeBytes() {
+        return end;
+    }
+
+    private Path generationPath(int generation) {
+        return generation == 0 ? base : base.resolveSibling(base.getFileName() + "." + generation);
+    }
+
+    private int newestGeneration() throws IOException {
+        int newest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(base.toAbsolutePath().getParent(), base.getFileName() + ".*")) {
+            for (Path file : files) {
+                newest = Math.max(newest, generationOf(file));
+            }
+        }
+        return newest;
+    }
+
+    private void deleteOtherGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(base.toAbsolutePath().getParent(), base.getFileName() + "*")) {
+            for (Path file : files) {
+                final int other = file.getFileName().equals(base.getFileName()) ? 0 : generationOf(file);
+                if (other < 0 || other == generation) {
+                    continue;
+                }
+
+                try {
+                    Files.delete(file);
+                } catch (IOException ex) {
+                    // Windows keeps a file that is still mapped; it goes on a later open.
+                    logger.fine("Could not delete old log generation " + file.getFileName() + " yet: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the generation a sibling of the base file holds, or -1 if it is not a generation
+     */
+    private int generationOf(Path file) {
+        final String suffix = file.getFileName().toString().substring(base.getFileName().toString().length());
+        if (suffix.length() < 2 || suffix.charAt(0) != '.') {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(suffix.substring(1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private void mapSegment() throws IOException {
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * segmentBytes, segmentBytes));
+    }
+
+    private long capacity() {
+        return segments.size() * segmentBytes;
+    }
+
+    private void readRecord(long offset, byte[] destination) {
+        segments.get((int) (offset / segmentBytes)).get((int) (offset % segmentBytes), destination);
+    }
+
+    private static boolean checksumMatches(byte[] record, int payloadSize) {
+        final CRC32 crc = new CRC32();
+        crc.update(record, 0, payloadSize);
+        return ByteBuffer.wrap(record, payloadSize, CHECKSUM_BYTES).getInt() == (int) crc.getValue();
+    }
+
+    /**
+     * Receives records as the log is replayed.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long offset, ByteBuffer payload);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import java.sql.SQLException;
+
+/**
+ * Hands out database connections to SQL storage handlers.
+ */
+public interface ConnectionPool {
+
+    /**
+     * Opens the pool's connections.
+     *
+     * @throws SQLException if the database could not be reached
+     */
+    void open() throws SQLException;
+
+    /**
+     * Runs a read-only unit of work.
+     */
+    <T> T read(SqlFunction<T> function) throws SQLException;
+
+    /**
+     * Runs a unit of work in auto-commit mode.
+     */
+    <T> T write(SqlFunction<T> function) throws SQLException;
+
+    /**
+     * Runs a unit of work inside a single transaction, rolled back if the work throws.
+     */
+    <T> T transaction(SqlFunction<T> function) throws SQLException;
+
+    /**
+     * Closes every connection held by the pool.
+     */
+    void close();
+}
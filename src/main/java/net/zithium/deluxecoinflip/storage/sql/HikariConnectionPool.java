@@ -0,0 +1,91 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.SQLException;
+
+/**
+ * Leases connections from a HikariCP pool against a MySQL or MariaDB server.
+ *
+ * <p>Unlike SQLite, the server handles concurrent writers itself, so reads and
+ * writes both borrow any free connection. Prepared statements are cached by
+ * the driver ({@code cachePrepStmts}) rather than per lease.</p>
+ */
+public final class HikariConnectionPool implements ConnectionPool {
+
+    private final MySQLSettings settings;
+    private HikariDataSource dataSource;
+
+    public HikariConnectionPool(MySQLSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void open() throws SQLException {
+        final HikariConfig config = new HikariConfig();
+        config.setPoolName("DeluxeCoinflip");
+        config.setJdbcUrl(settings.jdbcUrl());
+        config.setUsername(settings.username());
+        config.setPassword(settings.password());
+        config.setMaximumPoolSize(settings.maximumPoolSize());
+        config.setMinimumIdle(settings.minimumIdle());
+        config.setConnectionTimeout(settings.connectionTimeoutMillis());
+        config.setIdleTimeout(settings.idleTimeoutMillis());
+        config.setMaxLifetime(settings.maxLifetimeMillis());
+        config.setKeepaliveTime(settings.keepaliveTimeMillis());
+
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        settings.properties().forEach(config::addDataSourceProperty);
+
+        try {
+            dataSource = new HikariDataSource(config);
+        } catch (RuntimeException ex) {
+            throw new SQLException("Could not connect to " + settings.jdbcUrl(), ex);
+        }
+    }
+
+    @Override
+    public <T> T read(SqlFunction<T> function) throws SQLException {
+        return write(function);
+    }
+
+    @Override
+    public <T> T write(SqlFunction<T> function) throws SQLException {
+        try (PooledConnection connection = lease()) {
+            return function.apply(connection);
+        }
+    }
+
+    @Override
+    public <T> T transaction(SqlFunction<T> function) throws SQLException {
+        try (PooledConnection connection = lease()) {
+            return connection.inTransaction(function);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    private PooledConnection lease() throws SQLException {
+        if (dataSource == null || dataSource.isClosed()) {
+            throw new SQLException("The MySQL connection pool is closed");
+        }
+
+        // Closing the lease closes its statements and hands the connection back to Hikari.
+        return new PooledConnection(dataSource.getConnection(), Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection and pool options for a MySQL or MariaDB server, read from {@code storage.mysql}.
+ *
+ * @param host                    server host name
+ * @param port                    server port
+ * @param database                schema holding the plugin tables
+ * @param username                login user
+ * @param password                login password
+ * @param properties              extra JDBC driver properties
+ * @param maximumPoolSize         most connections the pool will open
+ * @param minimumIdle             idle connections the pool tries to keep ready
+ * @param connectionTimeoutMillis how long to wait for a free connection
+ * @param idleTimeoutMillis       how long an idle connection is kept above {@code minimumIdle}
+ * @param maxLifetimeMillis       longest a connection is kept before being replaced
+ * @param keepaliveTimeMillis     how often idle connections are pinged, 0 to disable
+ */
+public record MySQLSettings(String host, int port, String database, String username, String password,
+                            Map<String, String> properties, int maximumPoolSize, int minimumIdle,
+                            long connectionTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis,
+                            long keepaliveTimeMillis) {
+
+    public static MySQLSettings fromConfig(@Nullable ConfigurationSection section) {
+        if (section == null) {
+            return new MySQLSettings("localhost", 3306, "deluxecoinflip", "root", "", Map.of(),
+                    10, 10, 5000L, 600000L, 1800000L, 0L);
+        }
+
+        final Map<String, String> properties = new LinkedHashMap<>();
+        final ConfigurationSection propertiesSection = section.getConfigurationSection("properties");
+        if (propertiesSection != null) {
+            for (String key : propertiesSection.getKeys(false)) {
+                properties.put(key, propertiesSection.getString(key));
+            }
+        }
+
+        final int maximumPoolSize = Math.max(1, section.getInt("pool.maximum-pool-size", 10));
+        return new MySQLSettings(
+                section.getString("host", "localhost"),
+                section.getInt("port", 3306),
+                section.getString("database", "deluxecoinflip"),
+                section.getString("username", "root"),
+                section.getString("password", ""),
+                properties,
+                maximumPoolSize,
+                Math.min(maximumPoolSize, Math.max(0, section.getInt("pool.minimum-idle", maximumPoolSize))),
+                section.getLong("pool.connection-timeout", 5000L),
+                section.getLong("pool.idle-timeout", 600000L),
+                section.getLong("pool.max-lifetime", 1800000L),
+                section.getLong("pool.keepalive-time", 0L)
+        );
+    }
+
+    public String jdbcUrl() {
+        return "jdbc:mysql://" + host + ":" + port + "/" + database;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A long-lived JDBC connection with a bounded cache of prepared statements.
+ *
+ * <p>Instances are only ever leased to one thread at a time by the owning pool,
+ * so the statement cache is not synchronized. Statements returned by
+ * {@link #prepare(String)} are owned by the cache and must not be closed by
+ * the caller; result sets still should be.</p>
+ */
+public final class PooledConnection implements AutoCloseable {
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    public PooledConnection(Connection connection, int statementCacheSize) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets a prepared statement for the given SQL, reusing a cached one if possible.
+     *
+     * @param sql the statement SQL
+     * @return a statement with its parameters cleared
+     * @throws SQLException if the statement could not be prepared
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            statement.clearParameters();
+            return statement;
+        }
+
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    /**
+     * Runs a unit of work inside a single transaction on this connection.
+     * The transaction is rolled back if the work throws.
+     */
+    public <T> T inTransaction(SqlFunction<T> function) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            final T result = function.apply(this);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException ex) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackEx) {
+                ex.addSuppressed(rollbackEx);
+            }
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+
+        statements.clear();
+
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded either way.
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // Closing a cached statement is best effort.
+        }
+    }
+}
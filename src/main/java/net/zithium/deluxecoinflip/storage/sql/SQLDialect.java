@@ -0,0 +1,37 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+/**
+ * The column types and statements that differ between the supported SQL databases.
+ */
+public enum SQLDialect {
+
+    SQLITE("BLOB", "INTEGER PRIMARY KEY AUTOINCREMENT"),
+    MYSQL("BINARY(16)", "BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY");
+
+    private final String uuidType;
+    private final String autoIncrementKey;
+
+    SQLDialect(String uuidType, String autoIncrementKey) {
+        this.uuidType = uuidType;
+        this.autoIncrementKey = autoIncrementKey;
+    }
+
+    /**
+     * Gets the column type used for 16-byte UUID keys.
+     */
+    public String uuidType() {
+        return uuidType;
+    }
+
+    /**
+     * Gets the column definition of a generated 64-bit primary key.
+     */
+    public String autoIncrementKey() {
+        return autoIncrementKey;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a single writer connection and a small set of read-only connections
+ * open against one SQLite database file.
+ *
+ * <p>SQLite only allows one writer at a time, so every write is serialized on
+ * the writer connection. With WAL journaling the readers can keep serving
+ * lookups while the writer commits. When no readers are configured, reads are
+ * served by the writer as well.</p>
+ */
+public final class SQLiteConnectionPool implements ConnectionPool {
+
+    private static final Set<String> JOURNAL_MODES = Set.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+
+    private final File file;
+    private final SQLiteSettings settings;
+    private final Logger logger;
+
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private PooledConnection writer;
+    private BlockingQueue<PooledConnection> readers;
+    private volatile boolean closed;
+
+    public SQLiteConnectionPool(File file, SQLiteSettings settings, Logger logger) {
+        this.file = file;
+        this.settings = settings;
+        this.logger = logger;
+    }
+
+    /**
+     * Opens the writer and reader connections and applies the configured pragmas.
+     *
+     * @throws SQLException if any connection could not be opened
+     */
+    @Override
+    public void open() throws SQLException {
+        writer = new PooledConnection(openConnection(false), settings.statementCacheSize());
+
+        readers = new ArrayBlockingQueue<>(Math.max(1, settings.readerConnections()));
+        for (int i = 0; i < settings.readerConnections(); i++) {
+            readers.add(new PooledConnection(openConnection(true), settings.statementCacheSize()));
+        }
+
+        closed = false;
+    }
+
+    /**
+     * Runs a read-only unit of work on one of the reader connections.
+     */
+    @Override
+    public <T> T read(SqlFunction<T> function) throws SQLException {
+        ensureOpen();
+        if (settings.readerConnections() == 0) {
+            return write(function);
+        }
+
+        final PooledConnection reader;
+        try {
+            reader = readers.poll(settings.busyTimeoutMillis() + 1000L, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection", ex);
+        }
+
+        if (reader == null) {
+            throw new SQLException("Timed out waiting for a reader connection");
+        }
+
+        try {
+            return function.apply(reader);
+        } finally {
+            release(reader);
+        }
+    }
+
+    private void release(PooledConnection reader) {
+        if (closed) {
+            reader.close();
+            return;
+        }
+
+        readers.add(reader);
+        // close() may have drained the queue between the check and the add.
+        if (closed && readers.remove(reader)) {
+            reader.close();
+        }
+    }
+
+    /**
+     * Runs a unit of work on the writer connection in auto-commit mode.
+     */
+    @Override
+    public <T> T write(SqlFunction<T> function) throws SQLException {
+        ensureOpen();
+        writerLock.lock();
+        try {
+            return function.apply(writer);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a unit of work on the writer connection inside a single transaction.
+     * The transaction is rolled back if the work throws.
+     */
+    @Override
+    public <T> T transaction(SqlFunction<T> function) throws SQLException {
+        return write(connection -> connection.inTransaction(function));
+    }
+
+    /**
+     * Closes every connection. Waits for an in-flight write to finish first.
+     * Readers leased out at the time are closed when they are handed back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        if (readers != null) {
+            PooledConnection reader;
+            while ((reader = readers.poll()) != null) {
+                reader.close();
+            }
+        }
+
+        if (writer != null) {
+            writerLock.lock();
+            try {
+                try (Statement statement = writer.getConnection().createStatement()) {
+                    // Fold the WAL back into the main file so copies of database.db stay complete.
+                    statement.execute("PRAGMA wal_checkpoint(TRUNCATE);");
+                } catch (SQLException ex) {
+                    logger.fine("Could not checkpoint the SQLite WAL on close: " + ex.getMessage());
+                }
+
+                writer.close();
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a consistent copy of the database to a new file with {@code VACUUM INTO}.
+     * The copy is made on a connection of its own, so with WAL journaling it neither
+     * waits for nor blocks the writer.
+     *
+     * @param target the file to create, which must not exist yet
+     * @throws SQLException if the copy could not be made
+     */
+    public void snapshot(File target) throws SQLException {
+        ensureOpen();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA busy_timeout = " + settings.busyTimeoutMillis() + ";");
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("VACUUM INTO ?;")) {
+                statement.setString(1, target.getAbsolutePath());
+                statement.execute();
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public SQLiteSettings getSettings() {
+        return settings;
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed || writer == null) {
+            throw new SQLException("The SQLite connection pool is closed");
+        }
+    }
+
+    private Connection openConnection(boolean readOnly) throws SQLException {
+        final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = " + settings.busyTimeoutMillis() + ";");
+
+            if (!readOnly) {
+                // journal_mode is persistent in the file, so the writer sets it once for everyone.
+                statement.execute("PRAGMA journal_mode = " + validated(settings.journalMode(), JOURNAL_MODES, "WAL") + ";");
+            }
+
+            statement.execute("PRAGMA synchronous = " + validated(settings.synchronous(), SYNCHRONOUS_MODES, "NORMAL") + ";");
+            statement.execute("PRAGMA cache_size = -" + settings.cacheSizeKb() + ";");
+            statement.execute("PRAGMA temp_store = MEMORY;");
+
+            if (readOnly) {
+                statement.execute("PRAGMA query_only = true;");
+            }
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+
+        return connection;
+    }
+
+    private String validated(String value, Set<String> allowed, String fallback) {
+        if (allowed.contains(value)) {
+            return value;
+        }
+
+        logger.warning("Unsupported SQLite pragma value '" + value + "', falling back to " + fallback + ".");
+        return fallback;
+    }
+}
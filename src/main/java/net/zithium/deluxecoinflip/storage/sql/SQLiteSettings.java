@@ -0,0 +1,45 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Tuning options for the SQLite connection pool, read from {@code storage.sqlite}.
+ *
+ * @param readerConnections  number of read-only connections kept open next to the writer
+ * @param journalMode        value for {@code PRAGMA journal_mode}
+ * @param synchronous        value for {@code PRAGMA synchronous}
+ * @param cacheSizeKb        page cache size per connection, in KiB
+ * @param statementCacheSize prepared statements cached per connection
+ * @param busyTimeoutMillis  how long a connection waits on a lock before failing
+ */
+public record SQLiteSettings(int readerConnections, String journalMode, String synchronous,
+                             int cacheSizeKb, int statementCacheSize, int busyTimeoutMillis) {
+
+    public static SQLiteSettings defaults() {
+        return new SQLiteSettings(2, "WAL", "NORMAL", 8192, 32, 5000);
+    }
+
+    public static SQLiteSettings fromConfig(@Nullable ConfigurationSection section) {
+        final SQLiteSettings defaults = defaults();
+        if (section == null) {
+            return defaults;
+        }
+
+        return new SQLiteSettings(
+                Math.max(0, section.getInt("reader-connections", defaults.readerConnections())),
+                section.getString("journal-mode", defaults.journalMode()).toUpperCase(Locale.ROOT),
+                section.getString("synchronous", defaults.synchronous()).toUpperCase(Locale.ROOT),
+                Math.max(0, section.getInt("cache-size-kb", defaults.cacheSizeKb())),
+                Math.max(1, section.getInt("statement-cache-size", defaults.statementCacheSize())),
+                Math.max(0, section.getInt("busy-timeout", defaults.busyTimeoutMillis()))
+        );
+    }
+}
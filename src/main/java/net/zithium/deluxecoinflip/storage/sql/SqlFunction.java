@@ -0,0 +1,19 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.sql;
+
+import java.sql.SQLException;
+
+/**
+ * A unit of work executed against a leased {@link PooledConnection}.
+ *
+ * @param <T> the result type
+ */
+@FunctionalInterface
+public interface SqlFunction<T> {
+
+    T apply(PooledConnection connection) throws SQLException;
+}
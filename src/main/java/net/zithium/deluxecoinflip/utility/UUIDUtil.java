@@ -0,0 +1,36 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.utility;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+public interface UUIDUtil {
+
+    /**
+     * Packs a UUID into the 16 bytes stored in binary key columns.
+     */
+    static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Reads a UUID back from its 16-byte form.
+     *
+     * @throws IllegalArgumentException if the array is not 16 bytes long
+     */
+    static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) {
+            throw new IllegalArgumentException("A binary UUID must be 16 bytes long");
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip;
+
+import me.nahu.scheduler.wrapper.WrappedScheduler;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A stand-in plugin for running plugin code outside a server. It only provides
+ * a data folder, the given config and a logger. Scheduled tasks are dropped.
+ */
+public final class TestPlugin {
+
+    private TestPlugin() {
+    }
+
+    public static DeluxeCoinflipPlugin create(File dataFolder, YamlConfiguration config) throws ReflectiveOperationException {
+        final DeluxeCoinflipPlugin plugin = mock(DeluxeCoinflipPlugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("DeluxeCoinflip"));
+        when(plugin.getScheduler()).thenReturn(mock(WrappedScheduler.class));
+
+        // CoinflipGame looks the plugin up statically to schedule its head lookup.
+        final Field instance = DeluxeCoinflipPlugin.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, plugin);
+        return plugin;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+import net.zithium.deluxecoinflip.TestPlugin;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Races many threads on the same listings and checks that every listing goes to
+ * exactly one joiner or canceller, whatever the interleaving.
+ */
+class ListingClaimRaceTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 500;
+
+    @TempDir
+    Path folder;
+
+    private GameManager gameManager;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        gameManager = new GameManager(TestPlugin.create(folder.toFile(), new YamlConfiguration()));
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentClaimsHaveOneWinner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final CoinflipGame game = listing(UUID.randomUUID());
+            assertEquals(1, race(thread -> game.tryClaim()), "winners in round " + round);
+            assertEquals(ListingState.CLAIMED, game.getListingState());
+        }
+    }
+
+    @Test
+    void claimAndCancelHaveOneWinner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final CoinflipGame game = listing(UUID.randomUUID());
+            assertEquals(1, race(thread -> thread % 2 == 0 ? game.tryClaim() : game.tryCancel()), "winners in round " + round);
+            assertNotEquals(ListingState.OPEN, game.getListingState());
+        }
+    }
+
+    @Test
+    void concurrentJoinsHaveOneWinner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final CoinflipGame game = listing(UUID.randomUUID());
+            gameManager.getListings().put(game);
+
+            assertEquals(1, race(thread -> gameManager.tryClaim(game.getGameId(), UUID.randomUUID()) != null),
+                    "winners in round " + round);
+            assertNull(gameManager.getCoinflipGame(game.getGameId()));
+        }
+    }
+
+    @Test
+    void joinAndCancelHaveOneWinner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final CoinflipGame game = listing(UUID.randomUUID());
+            gameManager.getListings().put(game);
+
+            final AtomicInteger claims = new AtomicInteger();
+            final AtomicInteger cancels = new AtomicInteger();
+            final int winners = race(thread -> {
+                final boolean won = thread % 2 == 0
+                        ? gameManager.tryClaim(game.getGameId(), UUID.randomUUID()) != null
+                        : gameManager.tryCancel(game.getGameId()) != null;
+                if (won) {
+                    (thread % 2 == 0 ? claims : cancels).incrementAndGet();
+                }
+                return won;
+            });
+
+            assertEquals(1, winners, "winners in round " + round);
+            assertEquals(1, claims.get() + cancels.get());
+            assertEquals(claims.get() == 1 ? ListingState.CLAIMED : ListingState.CANCELLED, game.getListingState());
+            assertNull(gameManager.getCoinflipGame(game.getGameId()));
+        }
+    }
+
+    @Test
+    void cancelAllAndJoinsSplitEveryListing() throws Exception {
+        final int listings = THREADS - 1;
+        for (int round = 0; round < ROUNDS; round++) {
+            final UUID creator = UUID.randomUUID();
+            final List<CoinflipGame> games = new ArrayList<>(listings);
+            for (int i = 0; i < listings; i++) {
+                final CoinflipGame game = listing(creator);
+                gameManager.getListings().put(game);
+                games.add(game);
+            }
+
+            final AtomicInteger cancelled = new AtomicInteger();
+            final int claimed = race(thread -> {
+                if (thread == 0) {
+                    cancelled.set(gameManager.tryCancelAll(creator).size());
+                    return false;
+                }
+                return gameManager.tryClaim(games.get(thread - 1).getGameId(), UUID.randomUUID()) != null;
+            });
+
+            assertEquals(listings, claimed + cancelled.get(), "listings handed out in round " + round);
+            assertEquals(0, gameManager.getListings().countByCreator(creator));
+        }
+    }
+
+    @Test
+    void relistAndRemoveKeepIndexesInStep() throws Exception {
+        final ListingRegistry registry = new ListingRegistry();
+        for (int round = 0; round < ROUNDS; round++) {
+            final UUID creator = UUID.randomUUID();
+            final CoinflipGame game = listing(creator);
+            registry.put(game);
+
+            // Releasing a claim puts the listing back while a cancel may be taking it away.
+            race(thread -> switch (thread % 3) {
+                case 0 -> registry.putIfAbsent(game);
+                case 1 -> registry.remove(game.getGameId()) != null;
+                default -> thread % 2 == 0 ? registry.put(game) == null : registry.remove(game);
+            });
+
+            final boolean listed = registry.contains(game.getGameId());
+            assertEquals(listed ? 1 : 0, registry.countByCreator(creator), "creator index in round " + round);
+            assertEquals(listed, registry.byProvider("VAULT").contains(game), "provider index in round " + round);
+            registry.remove(game.getGameId());
+        }
+        assertEquals(0, registry.byProvider("VAULT").size());
+    }
+
+    /**
+     * Runs one attempt per thread, all released at the same moment.
+     *
+     * @return the number of attempts that succeeded
+     */
+    private int race(IntPredicate attempt) throws Exception {
+        final CyclicBarrier start = new CyclicBarrier(THREADS);
+        final List<Future<Boolean>> results = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            results.add(pool.submit(() -> {
+                start.await();
+                return attempt.test(thread);
+            }));
+        }
+
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10L, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        return winners;
+    }
+
+    private static CoinflipGame listing(UUID creator) {
+        return new CoinflipGame(creator, "VAULT", 100L, null, null);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.game;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the expiry wheel by hand with a fake clock, one {@code advance} per second.
+ */
+class ListingExpiryWheelTest {
+
+    private static final long START = 1_700_000_000_250L;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final List<List<CoinflipGame>> batches = new ArrayList<>();
+    private ListingExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        clock.set(START);
+        batches.clear();
+        wheel = new ListingExpiryWheel(null, batches::add, clock::get);
+    }
+
+    @Test
+    void expiresOnceTheDeadlineHasPassed() {
+        final CoinflipGame game = listing();
+        wheel.schedule(game, START + 3_000L);
+
+        advanceTo(2);
+        assertTrue(batches.isEmpty());
+
+        advanceTo(3);
+        assertEquals(List.of(List.of(game)), batches);
+
+        advanceTo(10);
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void waitsWholeTurnsForFarDeadlines() {
+        final CoinflipGame oneTurn = listing();
+        final CoinflipGame twoTurns = listing();
+        wheel.schedule(oneTurn, START + 600_000L);
+        wheel.schedule(twoTurns, START + 1_034_000L);
+
+        advanceTo(599);
+        assertTrue(batches.isEmpty(), "expired before its deadline");
+
+        advanceTo(600);
+        assertEquals(List.of(List.of(oneTurn)), batches);
+
+        advanceTo(1_033);
+        assertEquals(1, batches.size(), "expired before its deadline");
+
+        advanceTo(1_034);
+        assertEquals(List.of(List.of(oneTurn), List.of(twoTurns)), batches);
+    }
+
+    @Test
+    void catchesUpAfterLagSpike() {
+        final CoinflipGame soon = listing();
+        final CoinflipGame later = listing();
+        final CoinflipGame nextTurn = listing();
+        final CoinflipGame notYet = listing();
+        wheel.schedule(soon, START + 5_000L);
+        wheel.schedule(later, START + 20_000L);
+        wheel.schedule(nextTurn, START + 700_000L);
+        wheel.schedule(notYet, START + 900_000L);
+
+        advanceTo(1);
+        clock.set(START + 800_000L);
+        wheel.advance();
+
+        assertEquals(List.of(List.of(soon, later, nextTurn)), batches);
+
+        advanceTo(900);
+        assertEquals(List.of(List.of(soon, later, nextTurn), List.of(notYet)), batches);
+    }
+
+    @Test
+    void cancelledListingsNeverExpire() {
+        final CoinflipGame queued = listing();
+        final CoinflipGame placed = listing();
+        wheel.schedule(queued, START + 5_000L);
+        wheel.schedule(placed, START + 5_000L);
+
+        // One is still waiting to be placed in its bucket, the other already is.
+        wheel.cancel(queued.getGameId());
+        advanceTo(1);
+        wheel.cancel(placed.getGameId());
+        wheel.cancel(UUID.randomUUID());
+
+        advanceTo(20);
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void reschedulingReplacesTheEntry() {
+        final CoinflipGame pushedBack = listing();
+        final CoinflipGame broughtForward = listing();
+        wheel.schedule(pushedBack, START + 5_000L);
+        wheel.schedule(broughtForward, START + 10_000L);
+        advanceTo(1);
+
+        wheel.schedule(pushedBack, START + 10_000L);
+        wheel.schedule(broughtForward, START + 3_000L);
+
+        advanceTo(9);
+        assertEquals(List.of(List.of(broughtForward)), batches);
+
+        advanceTo(20);
+        assertEquals(List.of(List.of(broughtForward), List.of(pushedBack)), batches);
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextAdvance() {
+        final CoinflipGame game = listing();
+        advanceTo(5);
+        wheel.schedule(game, START - 1_000L);
+
+        wheel.advance();
+        assertEquals(List.of(List.of(game)), batches);
+    }
+
+    /**
+     * Advances the wheel one second at a time up to the given second after the start.
+     */
+    private void advanceTo(long second) {
+        while (clock.get() < START + second * 1_000L) {
+            clock.addAndGet(1_000L);
+            wheel.advance();
+        }
+    }
+
+    private static CoinflipGame listing() {
+        return new CoinflipGame(UUID.randomUUID(), "VAULT", 100L, null, null);
+    }
+}
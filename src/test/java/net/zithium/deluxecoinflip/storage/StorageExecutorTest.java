@@ -0,0 +1,152 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the ordering and backpressure guarantees of the storage executor.
+ */
+class StorageExecutorTest {
+
+    private static final Logger LOGGER = Logger.getLogger("DeluxeCoinflip");
+
+    private StorageExecutor executor;
+    private ExecutorService callers;
+
+    @AfterEach
+    void tearDown() {
+        if (callers != null) {
+            callers.shutdownNow();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void overlappingMultiKeyTasksNeverWaitOnEachOther() throws Exception {
+        executor = new StorageExecutor(LOGGER, 10000, StorageExecutor.BackpressurePolicy.CALLER_RUNS, 4, false, () -> false);
+        callers = Executors.newFixedThreadPool(8);
+        final List<UUID> keys = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        final List<CompletableFuture<?>> submitted = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int thread = 0; thread < 8; thread++) {
+            callers.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    final List<UUID> subset = new ArrayList<>(keys);
+                    subset.remove(ThreadLocalRandom.current().nextInt(subset.size()));
+                    submitted.add(i % 2 == 0
+                            ? executor.readAll(subset, () -> true)
+                            : executor.writeAll(subset, () -> { }));
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10L, TimeUnit.SECONDS), "submitting timed out");
+        CompletableFuture.allOf(submitted.toArray(CompletableFuture[]::new)).get(10L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tasksRunByTheCallerKeepPerKeyOrder() throws Exception {
+        executor = new StorageExecutor(LOGGER, 1, StorageExecutor.BackpressurePolicy.CALLER_RUNS, 1, false, () -> false);
+        callers = Executors.newSingleThreadExecutor();
+        final UUID key = UUID.randomUUID();
+        final List<Integer> order = new CopyOnWriteArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch inlineStarted = new CountDownLatch(1);
+
+        final CompletableFuture<Void> queued = executor.write(key, () -> step(order, 1, running, overlaps, 200L));
+        // The only permit is taken, so this one runs on the calling thread once the first is done.
+        final CompletableFuture<?> inline = CompletableFuture.runAsync(() -> executor.write(key, () -> {
+            inlineStarted.countDown();
+            step(order, 2, running, overlaps, 200L);
+        }).join(), callers);
+
+        assertTrue(inlineStarted.await(5L, TimeUnit.SECONDS), "the inline task never started");
+        final CompletableFuture<Void> later = executor.write(key, () -> step(order, 3, running, overlaps, 0L));
+
+        CompletableFuture.allOf(queued, inline, later).get(10L, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2, 3), order);
+        assertEquals(0, overlaps.get(), "tasks for the same key overlapped");
+    }
+
+    @Test
+    void serverThreadsQueuePastCapacity() throws Exception {
+        executor = new StorageExecutor(LOGGER, 1, StorageExecutor.BackpressurePolicy.CALLER_RUNS, 1, false, () -> true);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Void> blocking = executor.write(null, () -> await(release));
+
+        final Thread caller = Thread.currentThread();
+        final CompletableFuture<Thread> overflow = executor.write(null, Thread::currentThread);
+        assertFalse(overflow.isDone(), "a server thread ran the task itself");
+        assertEquals(1L, executor.getStats().overflowed());
+        assertEquals(2, executor.getStats().depth());
+
+        release.countDown();
+        blocking.get(5L, TimeUnit.SECONDS);
+        assertFalse(overflow.get(5L, TimeUnit.SECONDS) == caller, "the task ran on the server thread");
+        assertEquals(0, executor.getStats().depth());
+    }
+
+    @Test
+    void abortRejectsWhenFull() throws Exception {
+        executor = new StorageExecutor(LOGGER, 1, StorageExecutor.BackpressurePolicy.ABORT, 1, false, () -> true);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Void> blocking = executor.write(null, () -> await(release));
+
+        final CompletableFuture<Void> rejected = executor.write(null, () -> { });
+        assertThrows(ExecutionException.class, rejected::get);
+        assertEquals(1L, executor.getStats().rejected());
+
+        release.countDown();
+        blocking.get(5L, TimeUnit.SECONDS);
+    }
+
+    private static void step(List<Integer> order, int step, AtomicInteger running, AtomicInteger overlaps, long sleepMillis) {
+        if (running.incrementAndGet() > 1) {
+            overlaps.incrementAndGet();
+        }
+        order.add(step);
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10L, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
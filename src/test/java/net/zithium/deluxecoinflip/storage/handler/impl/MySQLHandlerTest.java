@@ -0,0 +1,190 @@
+/*
+ * DeluxeCoinflip Plugin
+ * Copyright (c) 2021 - 2025 Zithium Studios. All rights reserved.
+ */
+
+package net.zithium.deluxecoinflip.storage.handler.impl;
+
+import net.zithium.deluxecoinflip.TestPlugin;
+import net.zithium.deluxecoinflip.storage.PeriodStats;
+import net.zithium.deluxecoinflip.storage.PlayerData;
+import net.zithium.deluxecoinflip.storage.PlayerDelta;
+import net.zithium.deluxecoinflip.storage.RollupSettings;
+import net.zithium.deluxecoinflip.storage.StatPeriod;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the MySQL handler against a throwaway MySQL server, so the dialect's
+ * upserts and batches are checked by the database they are written for.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MySQLHandlerTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @TempDir
+    Path folder;
+
+    private MySQLHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final YamlConfiguration config = new YamlConfiguration();
+        config.set("storage.mysql.host", MYSQL.getHost());
+        config.set("storage.mysql.port", MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT));
+        config.set("storage.mysql.database", MYSQL.getDatabaseName());
+        config.set("storage.mysql.username", MYSQL.getUsername());
+        config.set("storage.mysql.password", MYSQL.getPassword());
+        config.set("storage.mysql.pool.maximum-pool-size", 2);
+        config.set("storage.mysql.properties.useSSL", "false");
+        config.set("storage.mysql.properties.allowPublicKeyRetrieval", "true");
+
+        handler = new MySQLHandler();
+        assertTrue(handler.onEnable(TestPlugin.create(folder.toFile(), config)), "handler failed to start");
+
+        // The schema is kept between tests, the rows are not.
+        handler.getConnectionPool().write(connection -> {
+            try (Statement statement = connection.getConnection().createStatement()) {
+                statement.execute("DELETE FROM players;");
+                statement.execute("DELETE FROM player_rollups;");
+            }
+            return null;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.onDisable();
+    }
+
+    @Test
+    void savePlayerReplacesExistingRow() {
+        final UUID uuid = UUID.randomUUID();
+        handler.savePlayer(new PlayerData(uuid, 1, 2, 30L, 40L, 50L, true));
+        handler.savePlayer(new PlayerData(uuid, 5, 6, 70L, 80L, 90L, false));
+
+        assertPlayer(handler.getPlayer(uuid), 5, 6, 70L, 80L, 90L, false);
+        assertEquals(1L, handler.countPlayers());
+    }
+
+    @Test
+    void savePlayersWritesWholeBatch() {
+        // More than one lookup chunk, so getPlayers has to split its IN list.
+        final List<PlayerData> batch = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            batch.add(new PlayerData(UUID.randomUUID(), i, i + 1, i * 10L, i * 5L, i * 20L, i % 2 == 0));
+        }
+
+        assertTrue(handler.savePlayers(batch));
+        assertEquals(1200L, handler.countPlayers());
+
+        final Map<UUID, PlayerData> loaded = handler.getPlayers(batch.stream().map(PlayerData::getUUID).toList());
+        for (int i = 0; i < batch.size(); i++) {
+            assertPlayer(loaded.get(batch.get(i).getUUID()), i, i + 1, i * 10L, i * 5L, i * 20L, i % 2 == 0);
+        }
+    }
+
+    @Test
+    void savePlayersUpsertsWithinOneBatch() {
+        final UUID uuid = UUID.randomUUID();
+        handler.savePlayer(new PlayerData(uuid, 1, 1, 1L, 1L, 1L, true));
+
+        assertTrue(handler.savePlayers(List.of(
+                new PlayerData(uuid, 9, 8, 7L, 6L, 5L, false),
+                new PlayerData(UUID.randomUUID(), 1, 0, 0L, 0L, 0L, true))));
+
+        assertPlayer(handler.getPlayer(uuid), 9, 8, 7L, 6L, 5L, false);
+        assertEquals(2L, handler.countPlayers());
+    }
+
+    @Test
+    void savePlayerDeltasAddToStoredCounters() {
+        final UUID uuid = UUID.randomUUID();
+        handler.savePlayer(new PlayerData(uuid, 10, 20, 300L, 400L, 500L, true));
+
+        final int counters = PlayerDelta.WINS | PlayerDelta.LOSSES | PlayerDelta.PROFIT
+                | PlayerDelta.TOTAL_LOSSES | PlayerDelta.TOTAL_GAMBLED;
+        assertTrue(handler.savePlayerDeltas(List.of(new PlayerDelta(uuid, counters, 1, 2, 30L, 40L, 50L, false, System.currentTimeMillis()))));
+
+        // The broadcast setting was not marked dirty, so it keeps its stored value.
+        assertPlayer(handler.getPlayer(uuid), 11, 22, 330L, 440L, 550L, true);
+
+        assertTrue(handler.savePlayerDeltas(List.of(new PlayerDelta(uuid, PlayerDelta.BROADCASTS, 0, 0, 0L, 0L, 0L, false, System.currentTimeMillis()))));
+        assertPlayer(handler.getPlayer(uuid), 11, 22, 330L, 440L, 550L, false);
+    }
+
+    @Test
+    void savePlayerDeltasInsertMissingRows() {
+        final UUID uuid = UUID.randomUUID();
+        assertTrue(handler.savePlayerDeltas(List.of(
+                new PlayerDelta(uuid, PlayerDelta.WINS | PlayerDelta.PROFIT, 1, 0, 100L, 0L, 100L, true, System.currentTimeMillis()))));
+
+        assertPlayer(handler.getPlayer(uuid), 1, 0, 100L, 0L, 100L, true);
+    }
+
+    @Test
+    void incrementStatsAddsCountersAndRollups() {
+        final UUID uuid = UUID.randomUUID();
+        assertTrue(handler.incrementStats(uuid, 1, 0, 100L, 0L, 200L, System.currentTimeMillis()));
+        assertTrue(handler.incrementStats(uuid, 0, 1, -50L, 50L, 50L, System.currentTimeMillis()));
+
+        assertPlayer(handler.getPlayer(uuid), 1, 1, 50L, 50L, 250L, true);
+
+        final long dayStart = RollupSettings.defaults().periodStart(StatPeriod.DAY, System.currentTimeMillis());
+        final PeriodStats today = handler.getPeriodStats(uuid, StatPeriod.DAY, dayStart);
+        assertEquals(1, today.wins());
+        assertEquals(1, today.losses());
+        assertEquals(50L, today.profit());
+        assertEquals(250L, today.totalGambled());
+    }
+
+    @Test
+    void rollupsUseTheTimeTheChangeWasMade() {
+        final UUID uuid = UUID.randomUUID();
+        final RollupSettings settings = RollupSettings.defaults();
+        final long today = settings.periodStart(StatPeriod.DAY, System.currentTimeMillis());
+        final long yesterday = settings.periodStart(StatPeriod.DAY, today - 1L);
+        assertTrue(handler.incrementStats(uuid, 1, 0, 100L, 0L, 100L, today - 1L));
+
+        assertEquals(1, handler.getPeriodStats(uuid, StatPeriod.DAY, yesterday).wins());
+        assertEquals(0, handler.getPeriodStats(uuid, StatPeriod.DAY, today).wins());
+    }
+
+    @Test
+    void unknownPlayerIsNotStored() {
+        final UUID uuid = UUID.randomUUID();
+        assertPlayer(handler.getPlayer(uuid), 0, 0, 0L, 0L, 0L, true);
+        assertEquals(0L, handler.countPlayers());
+        assertFalse(handler.getPlayers(List.of(uuid)).isEmpty());
+    }
+
+    private static void assertPlayer(PlayerData player, int wins, int losses, long profit,
+                                     long totalLosses, long totalGambled, boolean broadcasts) {
+        assertEquals(wins, player.getWins(), "wins");
+        assertEquals(losses, player.getLosses(), "losses");
+        assertEquals(profit, player.getProfit(), "profit");
+        assertEquals(totalLosses, player.getTotalLosses(), "total losses");
+        assertEquals(totalGambled, player.getTotalGambled(), "total gambled");
+        assertEquals(broadcasts, player.isDisplayBroadcastMessages(), "broadcasts");
+    }
+}